@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class App extends Application {
+
+    private static final Logger logger = Logger.getLogger(App.class.getName());
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+
+        System.out.println(System.getProperty("javafx.runtime.version"));
+
+        primaryStage.setTitle("Tetris");
+
+        // The system property "tetris.boards" shows several boards in a grid with "tetris.columns" boards per row.
+        int boards = Integer.getInteger("tetris.boards", 1);
+        Scene scene;
+        if (boards > 1) {
+            int columns = Integer.getInteger("tetris.columns", (int) Math.ceil(Math.sqrt(boards)));
+            scene = new Scene(new TetrisGrid(boards, columns, Double.parseDouble(System.getProperty("tetris.squareSize", "20"))));
+        } else {
+            scene = new Scene(new Tetris());
+        }
+
+        primaryStage.setScene(scene);
+        primaryStage.show();
+        if (logger.isLoggable(Level.FINE)) {
+            logFirstFrame(scene);
+        }
+    }
+
+    /**
+     * Logs the time from the start of the JVM until the first frame is rendered (after its layout) at level {@code FINE}.
+     *
+     * @param scene The scene.
+     */
+    private static void logFirstFrame(final Scene scene) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                logger.fine("First frame after " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+            }
+        });
+    }
+
+    public static final class Launcher {
+
+        public static void main(String[] args) {
+            launch(App.class, args);
+        }
+    }
+}
\ No newline at end of file
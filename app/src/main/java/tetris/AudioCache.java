@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.media.AudioClip;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads audio clips on a background thread and caches them, so that all boards and all games share the decoded clips.
+ * <p/>
+ * Creating the first clips takes a few hundred milliseconds (the media stack is initialized and the sounds are decoded), which must neither delay the first frame nor the first events of a game.
+ * Therefore a clip is only returned, when it has been loaded, otherwise the sound is skipped.
+ *
+ * @author Christian Schudt
+ */
+final class AudioCache {
+
+    private static final Logger logger = Logger.getLogger(AudioCache.class.getName());
+
+    /**
+     * The loaded clips by their resource name.
+     */
+    private static final Map<String, AudioClip> clips = new ConcurrentHashMap<>();
+
+    /**
+     * The resources, which are loading, loaded or failed. Each resource is only loaded once.
+     */
+    private static final Map<String, Boolean> requested = new ConcurrentHashMap<>();
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Audio Loader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private AudioCache() {
+    }
+
+    /**
+     * Starts loading clips in the background.
+     *
+     * @param resources The resource names of the clips.
+     */
+    static void preload(final String... resources) {
+        for (final String resource : resources) {
+            if (requested.putIfAbsent(resource, Boolean.TRUE) == null) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        load(resource);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Gets a clip, if it's loaded. Otherwise it starts loading it.
+     *
+     * @param resource The resource name of the clip.
+     * @return The clip or null, if it isn't loaded (yet).
+     */
+    static AudioClip get(String resource) {
+        AudioClip clip = clips.get(resource);
+        if (clip == null) {
+            preload(resource);
+        }
+        return clip;
+    }
+
+    /**
+     * Checks, if a clip is loaded and ready to play.
+     *
+     * @param resource The resource name of the clip.
+     * @return True, if it's loaded.
+     */
+    static boolean isLoaded(String resource) {
+        return clips.containsKey(resource);
+    }
+
+    private static void load(String resource) {
+        long start = System.nanoTime();
+        URL url = AudioCache.class.getResource("/" + resource);
+        if (url == null) {
+            logger.warning("Audio resource not found: " + resource);
+            return;
+        }
+        try {
+            clips.put(resource, new AudioClip(url.toExternalForm()));
+            logger.fine("Loaded " + resource + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not load " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.effect.Light;
+import javafx.scene.effect.Lighting;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Caches the images of lit blocks, so that the {@link Lighting} effect is only rendered once per color, size and light direction
+ * instead of on every frame for every block.
+ * <p/>
+ * This class must only be used on the JavaFX Application Thread.
+ *
+ * @author Christian Schudt
+ */
+final class BlockSprites {
+
+    /**
+     * The light direction of a block, which is not rotated.
+     */
+    static final double DEFAULT_AZIMUTH = 225;
+
+    private static final Map<Key, Image> SPRITES = new HashMap<>();
+
+    private BlockSprites() {
+    }
+
+    /**
+     * Gets the image of a block.
+     *
+     * @param color   The color.
+     * @param size    The width and height.
+     * @param azimuth The azimuth of the light.
+     * @return The image or null, if the size is not positive (i.e. the board is not laid out yet).
+     */
+    static Image get(Color color, double size, double azimuth) {
+        if (size <= 0) {
+            return null;
+        }
+        Key key = new Key(color, size, azimuth);
+        Image image = SPRITES.get(key);
+        if (image == null) {
+            Rectangle rectangle = new Rectangle(size, size, color);
+            rectangle.setArcWidth(7);
+            rectangle.setArcHeight(7);
+            Lighting lighting = new Lighting(new Light.Distant(azimuth, 55, Color.WHITE));
+            lighting.setSurfaceScale(0.8);
+            rectangle.setEffect(lighting);
+            SnapshotParameters snapshotParameters = new SnapshotParameters();
+            snapshotParameters.setFill(Color.TRANSPARENT);
+            image = rectangle.snapshot(snapshotParameters, null);
+            SPRITES.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Removes all images of the given size, e.g. because the size of the board has changed.
+     *
+     * @param size The size.
+     */
+    static void invalidate(double size) {
+        for (Iterator<Key> iterator = SPRITES.keySet().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().size == size) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final Color color;
+
+        private final double size;
+
+        private final double azimuth;
+
+        private Key(Color color, double size, double azimuth) {
+            this.color = color;
+            this.size = size;
+            // Normalize the angle, so that e.g. -135 and 225 share the same image.
+            this.azimuth = (azimuth % 360 + 360) % 360;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return color.equals(other.color) && size == other.size && azimuth == other.azimuth;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = color.hashCode();
+            result = 31 * result + Double.hashCode(size);
+            result = 31 * result + Double.hashCode(azimuth);
+            return result;
+        }
+    }
+}
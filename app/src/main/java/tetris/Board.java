@@ -0,0 +1,888 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.*;
+import javafx.application.Platform;
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.binding.ObjectBinding;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.HorizontalDirection;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+import tetris.engine.Game;
+import tetris.engine.GameListener;
+import tetris.engine.GameLoop;
+import tetris.engine.PieceGenerator;
+import tetris.engine.PieceGenerators;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+import tetris.engine.replay.Replay;
+import tetris.engine.replay.ReplayEvent;
+import tetris.engine.replay.ReplayReader;
+import tetris.engine.replay.ReplayRecorder;
+
+import java.util.EventListener;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * This class represents the main board. It renders the state of a {@link Game}, which is advanced by a {@link GameLoop} at a fixed rate.
+ * The animations only follow the state of the game.
+ *
+ * @author Christian Schudt
+ */
+final class Board extends StackPane {
+
+    /**
+     * The number of hidden rows, which are located invisible above the board.
+     */
+    private static final int HIDDEN_ROWS = Playfield.HIDDEN_ROWS;
+
+    /**
+     * The number of blocks per row.
+     */
+    private static final int BLOCKS_PER_ROW = Playfield.COLUMNS;
+
+    /**
+     * The number of visible blocks per column.
+     */
+    private static final int BLOCKS_PER_COLUMN = Playfield.VISIBLE_ROWS;
+
+    /**
+     * The default width and height of a block.
+     */
+    static final double DEFAULT_SQUARE_SIZE = 35;
+
+    /**
+     * The number of maximal previews.
+     */
+    static final int MAX_PREVIEWS = 6;
+
+    /**
+     * The number of previews, which can be set by the system property "tetris.previews" (1 to {@link #MAX_PREVIEWS}).
+     */
+    static final int PREVIEWS = Math.max(1, Math.min(MAX_PREVIEWS, Integer.getInteger("tetris.previews", 1)));
+
+    /**
+     * The opacity of the ghost tetromino.
+     */
+    private static final double GHOST_OPACITY = 0.3;
+
+    /**
+     * The duration of a tick of the game loop in nanoseconds.
+     */
+    private static final long TICK_NANOS = 1_000_000_000L / GameLoop.TICKS_PER_SECOND;
+
+    /**
+     * The piece generator of new games.
+     */
+    private final PieceGenerator pieceGenerator = createPieceGenerator();
+
+    /**
+     * The game, which holds the state of record.
+     */
+    private final Game game = new Game(PREVIEWS, pieceGenerator);
+
+    /**
+     * Advances the game.
+     */
+    private final GameLoop gameLoop = new GameLoop(game);
+
+    /**
+     * Records the current game.
+     */
+    private final ReplayRecorder replayRecorder;
+
+    /**
+     * Ticks the game loop (or plays replays) according to the elapsed time of the current game (without pauses).
+     */
+    private final SharedAnimationTimer clock;
+
+    /**
+     * The move down transition.
+     */
+    private final TranslateTransition moveDownTransition;
+
+    /**
+     * The rotate transition.
+     */
+    private final TetrominoRotateTransition rotateTransition;
+
+    /**
+     * The transition, which let's a piece move down fast.
+     */
+    private final TranslateTransition moveDownFastTransition;
+
+    /**
+     * The translate transition for the left/right movement.
+     */
+    private final TranslateTransition translateTransition;
+
+    /**
+     * A set of running transitions. All running transitions are paused, when the game is paused.
+     */
+    private final Set<Animation> runningAnimations = new HashSet<>();
+
+    /**
+     * Renders the locked blocks.
+     */
+    private final PlayfieldView playfieldView;
+
+    /**
+     * The very fast drop down transition.
+     */
+    private final TranslateTransition dropDownTransition;
+
+    /**
+     * The current tetromino, which is falling.
+     */
+    private Tetromino currentTetromino;
+
+    /**
+     * The ghost of the current tetromino, which shows where it lands.
+     */
+    private Tetromino ghostTetromino;
+
+    /**
+     * Recycles the current tetromino and its ghost.
+     */
+    private final TetrominoPool tetrominoPool = new TetrominoPool();
+
+    /**
+     * Delivers the events to the board listeners.
+     */
+    private final BoardEventBus eventBus = new BoardEventBus();
+
+    private DoubleProperty squareSize = new SimpleDoubleProperty();
+
+    /**
+     * The elapsed time of the current game in nanoseconds.
+     */
+    private long elapsedTime;
+
+    /**
+     * The time of the last pulse or 0, if the clock has just been started.
+     */
+    private long lastPulse;
+
+    /**
+     * The number of ticks of the current game.
+     */
+    private long ticks;
+
+    /**
+     * Reads the events of the replay, which is currently played, or null, if the board is played by the user.
+     */
+    private ReplayReader replayReader;
+
+    /**
+     * Creates the board with the default size.
+     */
+    public Board() {
+        this(DEFAULT_SQUARE_SIZE);
+    }
+
+    /**
+     * Creates the board.
+     *
+     * @param size The width and height of a block.
+     */
+    public Board(double size) {
+        setFocusTraversable(true);
+
+
+        setId("board");
+        setMinWidth(size * BLOCKS_PER_ROW);
+        setMinHeight(size * BLOCKS_PER_COLUMN);
+
+        maxWidthProperty().bind(minWidthProperty());
+        maxHeightProperty().bind(minHeightProperty());
+        //setStyle("-fx-border-color:red");
+        //        minHeightProperty().bind(new DoubleBinding() {
+        //            {
+        //                super.bind(widthProperty());
+        //            }
+        //
+        //            @Override
+        //            protected double computeValue() {
+        //                return getWidth() * BLOCKS_PER_COLUMN / BLOCKS_PER_ROW;
+        //            }
+        //        });
+        //        maxHeightProperty().bind(minHeightProperty());
+
+        clipProperty().bind(new ObjectBinding<Node>() {
+            {
+                super.bind(widthProperty(), heightProperty());
+            }
+
+            @Override
+            protected Node computeValue() {
+                return new Rectangle(getWidth(), getHeight());
+            }
+        });
+
+        setAlignment(Pos.TOP_LEFT);
+
+        // Moves the piece down.
+        moveDownTransition = new TranslateTransition(Duration.seconds(0.3));
+        registerPausableAnimation(moveDownTransition);
+
+        // Moves the piece down fast.
+        moveDownFastTransition = new TranslateTransition(Duration.seconds(0.08));
+        // To make it look more smoothly, use a linear interpolator.
+        moveDownFastTransition.setInterpolator(Interpolator.LINEAR);
+        registerPausableAnimation(moveDownFastTransition);
+
+        // Moves the piece left and right.
+        translateTransition = new TranslateTransition(Duration.seconds(0.1));
+        registerPausableAnimation(translateTransition);
+
+        // Rotates the piece.
+        rotateTransition = new TetrominoRotateTransition(Duration.seconds(0.1));
+        rotateTransition.setOnFinished(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+                // The light has to stay where it is, while the tetromino rotates. Show the blocks lit from the new direction, once the rotation is done.
+                if (currentTetromino != null) {
+                    currentTetromino.setAzimuth(BlockSprites.DEFAULT_AZIMUTH - rotateTransition.getToAngle());
+                }
+            }
+        });
+        dropDownTransition = new TranslateTransition(Duration.seconds(0.1));
+        dropDownTransition.setInterpolator(Interpolator.EASE_IN);
+        registerPausableAnimation(dropDownTransition);
+
+        squareSize.bind(new DoubleBinding() {
+            {
+                super.bind(widthProperty());
+            }
+
+            @Override
+            protected double computeValue() {
+                return getWidth() / BLOCKS_PER_ROW;
+            }
+        });
+        if ("canvas".equals(System.getProperty("tetris.renderer"))) {
+            CanvasPlayfieldView canvasPlayfieldView = new CanvasPlayfieldView();
+            canvasPlayfieldView.widthProperty().bind(widthProperty());
+            canvasPlayfieldView.heightProperty().bind(heightProperty());
+            playfieldView = canvasPlayfieldView;
+        } else {
+            playfieldView = new NodePlayfieldView();
+        }
+        getChildren().add((Node) playfieldView);
+
+        // This is the only listener for the size. It lays out all blocks in one pass.
+        squareSize.addListener(new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observableValue, Number oldValue, Number newValue) {
+                layoutBlocks(newValue.doubleValue());
+                // The images of the old size are no longer needed.
+                BlockSprites.invalidate(oldValue.doubleValue());
+            }
+        });
+
+        // The animation of eliminated rows is reused, so that it needs to be registered only once.
+        Animation eliminationAnimation = playfieldView.getEliminationAnimation();
+        eliminationAnimation.setOnFinished(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+                notifyOnDropped();
+            }
+        });
+        registerPausableAnimation(eliminationAnimation);
+
+        game.addGameListener(new GameRenderer());
+
+        replayRecorder = new ReplayRecorder(game, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return ticks;
+            }
+        });
+        game.addGameListener(replayRecorder);
+
+        clock = new SharedAnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (lastPulse != 0) {
+                    elapsedTime += now - lastPulse;
+                }
+                lastPulse = now;
+                // Catch up with the elapsed time, so that the game runs at the same speed, even if frames are dropped.
+                long dueTicks = elapsedTime / TICK_NANOS;
+                while (ticks < dueTicks) {
+                    ticks++;
+                    if (replayReader != null) {
+                        playReplayEvents(ticks);
+                    } else {
+                        gameLoop.tick();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates the piece generator, which can be chosen with the system property "tetris.generator" (e.g. "uniform", "bag" or "history").
+     *
+     * @return The piece generator.
+     */
+    private static PieceGenerator createPieceGenerator() {
+        return PieceGenerators.forName(System.getProperty("tetris.generator", "uniform"));
+    }
+
+    /**
+     * Lays out all blocks for a new size: the locked blocks, the current tetromino and its ghost.
+     *
+     * @param size The width and height of a block.
+     */
+    private void layoutBlocks(double size) {
+        playfieldView.setSquareSize(size);
+        if (currentTetromino != null) {
+            currentTetromino.setSquareSize(size);
+            currentTetromino.setTranslateX(game.getX() * size);
+            currentTetromino.setTranslateY((game.getY() - HIDDEN_ROWS) * size);
+        }
+        if (ghostTetromino != null) {
+            ghostTetromino.setSquareSize(size);
+            updateGhost();
+        }
+    }
+
+    /**
+     * Moves the ghost tetromino to the position, where the current tetromino lands.
+     * The landing position is calculated from the column heights of the playfield, so that this is cheap after each move and rotation.
+     */
+    private void updateGhost() {
+        if (ghostTetromino != null) {
+            ghostTetromino.setAngle(game.getRotation() * 90);
+            ghostTetromino.setTranslateX(game.getX() * getSquareSize());
+            ghostTetromino.setTranslateY((game.getLandingY() - HIDDEN_ROWS) * getSquareSize());
+        }
+    }
+
+    /**
+     * Registers an animation, which is added to the list of running animations, if it is running, and is removed again, if it is stopped.
+     * When the game pauses, all running animations are paused.
+     *
+     * @param animation The animation.
+     */
+    private void registerPausableAnimation(final Animation animation) {
+        animation.statusProperty().addListener(new ChangeListener<Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends Animation.Status> observableValue, Animation.Status status, Animation.Status status2) {
+                if (status2 == Animation.Status.STOPPED) {
+                    runningAnimations.remove(animation);
+                } else {
+                    runningAnimations.add(animation);
+                }
+            }
+        });
+    }
+
+    /**
+     * Notifies the listener, that a piece has dropped.
+     */
+    private void notifyOnDropped() {
+        eventBus.publish(BoardEventBus.DROPPED, 0);
+    }
+
+    /**
+     * Notifies the listener, that the game is over.
+     */
+    private void notifyGameOver() {
+        eventBus.publish(BoardEventBus.GAME_OVER, 0);
+    }
+
+    /**
+     * Notifies the listeners, that the piece was moved.
+     *
+     * @param direction The direction (-1 or 1).
+     */
+    private void notifyOnMove(int direction) {
+        eventBus.publish(BoardEventBus.MOVE, direction);
+    }
+
+    /**
+     * Notifies the listeners, that rows were eliminated.
+     *
+     * @param rows The number of rows.
+     */
+    private void notifyOnRowsEliminated(int rows) {
+        eventBus.publish(BoardEventBus.ROWS_ELIMINATED, rows);
+    }
+
+    /**
+     * Notifies the listeners, that the board has been cleared.
+     */
+    private void notifyCleared() {
+        eventBus.publish(BoardEventBus.CLEARED, 0);
+    }
+
+    /**
+     * Notifies the listeners, that an invalid move was tried.
+     */
+    private void notifyInvalidMove() {
+        eventBus.publish(BoardEventBus.INVALID_MOVE, 0);
+    }
+
+    /**
+     * Notifies the listeners, that the piece was rotated.
+     *
+     * @param direction The direction (-1 or 1).
+     */
+    private void notifyRotate(int direction) {
+        eventBus.publish(BoardEventBus.ROTATE, direction);
+    }
+
+    /**
+     * Clears the board and the waiting tetrominos.
+     */
+    public void clear() {
+        clock.stop();
+        replayReader = null;
+        game.clear();
+        playfieldView.clear();
+        // Also remove the last tetromino of a game, which is over.
+        for (Node node : getChildren()) {
+            if (node instanceof Tetromino) {
+                tetrominoPool.release((Tetromino) node);
+            }
+        }
+        getChildren().setAll((Node) playfieldView);
+        currentTetromino = null;
+        ghostTetromino = null;
+        notifyCleared();
+    }
+
+    /**
+     * Starts the board by spawning a new tetromino.
+     */
+    public void start() {
+        prepareStart();
+        gameLoop.start();
+    }
+
+    /**
+     * Starts the board with a given seed of the piece generator, e.g. so that all players of a versus match get the same pieces.
+     *
+     * @param seed The seed.
+     */
+    public void start(long seed) {
+        prepareStart();
+        gameLoop.start(seed);
+    }
+
+    private void prepareStart() {
+        clear();
+        Platform.runLater(new Runnable() {
+            @Override
+            public void run() {
+                requestFocus();
+            }
+        });
+        startClock();
+        game.setPieceGenerator(pieceGenerator);
+    }
+
+    /**
+     * Plays a replay in real-time. While the replay is played, the board does not react to user input.
+     *
+     * @param replay The replay.
+     */
+    public void replay(Replay replay) {
+        clear();
+        startClock();
+        replay.start(game);
+        replayReader = replay.reader();
+    }
+
+    /**
+     * Gets the replay of the current or last game.
+     *
+     * @return The replay or null, if no game has been started yet.
+     */
+    public Replay getReplay() {
+        return replayRecorder.getReplay();
+    }
+
+    /**
+     * Checks, if a replay is played.
+     *
+     * @return True, if a replay is played.
+     */
+    public boolean isReplaying() {
+        return replayReader != null;
+    }
+
+    /**
+     * Gets the ticks of the game loop since the start of the current game.
+     *
+     * @return The ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    private void startClock() {
+        elapsedTime = 0;
+        lastPulse = 0;
+        ticks = 0;
+        clock.start();
+    }
+
+    /**
+     * Applies all events of the replay up to the given tick.
+     *
+     * @param tick The current tick.
+     */
+    private void playReplayEvents(long tick) {
+        while (replayReader.hasNext() && replayReader.getFrame() <= tick) {
+            ReplayEvent event = replayReader.next();
+            event.apply(game, replayReader.getArgument());
+        }
+    }
+
+    /**
+     * Drops the tetromino down to the next possible position.
+     */
+    public void dropDown() {
+        if (replayReader == null) {
+            gameLoop.drop();
+        }
+    }
+
+    /**
+     * Tries to rotate the tetromino.
+     *
+     * @param direction The horizontal direction.
+     * @return True, if the rotation was successful, otherwise false.
+     */
+    public boolean rotate(final HorizontalDirection direction) {
+        if (replayReader != null) {
+            return false;
+        }
+        return gameLoop.rotate(direction == HorizontalDirection.RIGHT ? 1 : -1);
+    }
+
+    /**
+     * Moves the tetromino to left or right.
+     *
+     * @param direction The horizontal direction.
+     * @return True, if the movement was successful. False, if the movement was blocked by the board.
+     */
+    public boolean move(final HorizontalDirection direction) {
+        if (currentTetromino == null || replayReader != null || gameLoop.isDropping()) {
+            notifyInvalidMove();
+            return false;
+        }
+        return gameLoop.move(direction == HorizontalDirection.RIGHT ? 1 : -1);
+    }
+
+    /**
+     * Stops moving the tetromino down fast, so that it falls by gravity again.
+     */
+    public void moveDown() {
+        gameLoop.setSoftDrop(false);
+    }
+
+    /**
+     * Moves the current tetromino down fast, until {@link #moveDown()} is called.
+     */
+    public void moveDownFast() {
+        if (replayReader == null) {
+            gameLoop.setSoftDrop(true);
+        }
+    }
+
+    /**
+     * Pauses the board.
+     *
+     * @see #play()
+     */
+    public void pause() {
+        clock.stop();
+        for (Animation animation : runningAnimations) {
+            if (animation.getStatus() == Animation.Status.RUNNING) {
+                animation.pause();
+            }
+        }
+    }
+
+    /**
+     * Plays the board again, after it has been paused.
+     *
+     * @see #pause()
+     */
+    public void play() {
+        for (Animation animation : runningAnimations) {
+            if (animation.getStatus() == Animation.Status.PAUSED) {
+                animation.play();
+            }
+        }
+        lastPulse = 0;
+        clock.start();
+        requestFocus();
+    }
+
+    /**
+     * Gets the game, which is rendered by this board.
+     *
+     * @return The game.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the pool of the current tetromino and its ghost.
+     *
+     * @return The pool.
+     */
+    TetrominoPool getTetrominoPool() {
+        return tetrominoPool;
+    }
+
+    public double getSquareSize() {
+        return squareSize.get();
+    }
+
+    /**
+     * The width and height of a block, which follows the size of the board.
+     *
+     * @return The property.
+     */
+    public ReadOnlyDoubleProperty squareSizeProperty() {
+        return squareSize;
+    }
+
+    /**
+     * Adds a listener to the board, which gets notified for certain events.
+     * <p/>
+     * The listener is called on the JavaFX application thread, but not within the input handling: Events are delivered in the next pulse.
+     *
+     * @param boardListener The listener.
+     */
+    public void addBoardListener(BoardListener boardListener) {
+        eventBus.subscribe(boardListener, false);
+    }
+
+    /**
+     * Adds a listener to the board, which gets notified on a background thread, e.g. to play sounds.
+     * The listener must not access the scene graph.
+     *
+     * @param boardListener The listener.
+     */
+    public void addBackgroundBoardListener(BoardListener boardListener) {
+        eventBus.subscribe(boardListener, true);
+    }
+
+    /**
+     * Removes a listener, which was previously added by {@link #addBoardListener(tetris.Board.BoardListener)}
+     *
+     * @param boardListener The listener.
+     */
+    public void removeBoardListener(BoardListener boardListener) {
+        eventBus.unsubscribe(boardListener);
+    }
+
+    /**
+     * Renders the state changes of the game.
+     */
+    private final class GameRenderer implements GameListener {
+
+        @Override
+        public void onSpawned(PieceType type, int x, int y) {
+            currentTetromino = tetrominoPool.acquire(type, getSquareSize());
+
+            // Reset all transitions.
+            rotateTransition.setNode(currentTetromino);
+            rotateTransition.setToAngle(0);
+
+            translateTransition.setNode(currentTetromino);
+            moveDownTransition.setNode(currentTetromino);
+            moveDownFastTransition.setNode(currentTetromino);
+            dropDownTransition.setNode(currentTetromino);
+
+            // Add the ghost and the current tetromino to the board.
+            ghostTetromino = tetrominoPool.acquire(type, getSquareSize());
+            ghostTetromino.setOpacity(GHOST_OPACITY);
+            getChildren().addAll(ghostTetromino, currentTetromino);
+
+            // Translate the tetromino to its starting position.
+            currentTetromino.setTranslateY((y - HIDDEN_ROWS) * getSquareSize());
+            currentTetromino.setTranslateX(x * getSquareSize());
+            updateGhost();
+        }
+
+        @Override
+        public void onMoved(int direction, int x) {
+            translateTransition.setToX(x * getSquareSize());
+            translateTransition.playFromStart();
+            updateGhost();
+            notifyOnMove(direction);
+        }
+
+        @Override
+        public void onRotated(int direction) {
+            rotateTransition.setFromAngle(rotateTransition.getToAngle());
+            rotateTransition.setToAngle(rotateTransition.getToAngle() + direction * 90);
+            rotateTransition.playFromStart();
+            if (ghostTetromino != null) {
+                ghostTetromino.setAzimuth(BlockSprites.DEFAULT_AZIMUTH - game.getRotation() * 90);
+            }
+            updateGhost();
+            notifyRotate(direction);
+        }
+
+        @Override
+        public void onMovedDown(int y) {
+            if (gameLoop.isSoftDrop()) {
+                moveDownFastTransition.setToY((y - HIDDEN_ROWS) * getSquareSize());
+                moveDownFastTransition.playFromStart();
+            } else {
+                moveDownTransition.setToY((y - HIDDEN_ROWS) * getSquareSize());
+                moveDownTransition.playFromStart();
+            }
+        }
+
+        @Override
+        public void onDropped(int y) {
+            moveDownTransition.stop();
+            moveDownFastTransition.stop();
+            dropDownTransition.setToY((y - HIDDEN_ROWS) * getSquareSize());
+            dropDownTransition.playFromStart();
+        }
+
+        @Override
+        public void onInvalidMove() {
+            notifyInvalidMove();
+        }
+
+        @Override
+        public void onLocked(PieceType type, int rotation, int x, int y) {
+            playfieldView.merge(type, rotation, x, y);
+            // Cached nodes leak memory
+            // https://javafx-jira.kenai.com/browse/RT-32733
+            //currentTetromino.setCache(false);
+            // The transitions must not move the tetromino anymore, when it's reused.
+            translateTransition.stop();
+            rotateTransition.stop();
+            moveDownTransition.stop();
+            moveDownFastTransition.stop();
+            dropDownTransition.stop();
+            getChildren().removeAll(ghostTetromino, currentTetromino);
+            tetrominoPool.release(ghostTetromino);
+            tetrominoPool.release(currentTetromino);
+            currentTetromino = null;
+            ghostTetromino = null;
+            notifyOnDropped();
+        }
+
+        @Override
+        public void onRowsEliminated(int rows) {
+            playfieldView.eliminateRows(rows);
+            playfieldView.getEliminationAnimation().playFromStart();
+            notifyOnRowsEliminated(Integer.bitCount(rows));
+        }
+
+        @Override
+        public void onGarbageAdded(int rows, int hole) {
+            playfieldView.addGarbage(rows, hole);
+        }
+
+        @Override
+        public void onGameOver() {
+            getChildren().remove(ghostTetromino);
+            if (ghostTetromino != null) {
+                tetrominoPool.release(ghostTetromino);
+            }
+            // The current tetromino stays visible, until the board is cleared.
+            currentTetromino = null;
+            ghostTetromino = null;
+            notifyGameOver();
+        }
+    }
+
+    /**
+     * Allows to listen for certain board events.
+     */
+    public static interface BoardListener extends EventListener {
+
+
+        /**
+         * Called, when a tetromino is dropped or a complete row is dropped after some rows were eliminated.
+         */
+        void onDropped();
+
+        /**
+         * Called, when one or more rows are full and therefore get eliminated.
+         *
+         * @param rows The number of rows.
+         */
+        void onRowsEliminated(int rows);
+
+        /**
+         * Called when the game is over.
+         */
+        void onGameOver();
+
+        /**
+         * Called when the board has been cleared, e.g. before a new game starts. A running elimination animation is cancelled, i.e. its rows don't drop.
+         */
+        void onCleared();
+
+        /**
+         * Called when an invalid was made.
+         */
+        void onInvalidMove();
+
+        /**
+         * Called when a piece was moved.
+         *
+         * @param horizontalDirection The direction.
+         */
+        void onMove(HorizontalDirection horizontalDirection);
+
+        /**
+         * Called when a piece was rotated.
+         *
+         * @param horizontalDirection The direction.
+         */
+        void onRotate(HorizontalDirection horizontalDirection);
+    }
+}
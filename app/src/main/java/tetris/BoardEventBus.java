@@ -0,0 +1,380 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.geometry.HorizontalDirection;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers the events of a {@link Board} to its listeners, without letting them add latency to the input handling.
+ * <p/>
+ * The board is the only producer. It writes each event as primitive record (type and argument) into a preallocated ring buffer and publishes it by advancing the cursor.
+ * Each listener is a consumer with its own sequence, which follows the cursor:
+ * Listeners of the user interface are called on the JavaFX application thread in the next pulse, other listeners (e.g. for audio) on a background thread, which is shared by all boards.
+ * <p/>
+ * The producer never waits for the consumers:
+ * <ul>
+ * <li>Listeners of the user interface never lose events. They run on the same thread as the producer, so if one of them is a whole buffer behind, the producer delivers the pending events to them right away.</li>
+ * <li>A background listener, which is a whole buffer behind, is overrun by the producer. It notices it, skips the overwritten events and counts them, while the other listeners still receive them.</li>
+ * </ul>
+ *
+ * @author Christian Schudt
+ */
+final class BoardEventBus {
+
+    static final int DROPPED = 0;
+
+    static final int ROWS_ELIMINATED = 1;
+
+    static final int GAME_OVER = 2;
+
+    static final int INVALID_MOVE = 3;
+
+    /**
+     * A move, the argument is the direction (-1 or 1).
+     */
+    static final int MOVE = 4;
+
+    /**
+     * A rotation, the argument is the direction (-1 or 1).
+     */
+    static final int ROTATE = 5;
+
+    static final int CLEARED = 6;
+
+    private static final Logger logger = Logger.getLogger(BoardEventBus.class.getName());
+
+    private static final int CAPACITY = 1024;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private final int[] types = new int[CAPACITY];
+
+    private final int[] arguments = new int[CAPACITY];
+
+    /**
+     * The sequence of the next event, i.e. all events before it are published.
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The smallest sequence of the listeners of the user interface, when it was last checked. The producer may write up to a whole buffer ahead of it.
+     */
+    private long gatingSequence;
+
+    private boolean backgroundSubscriptions;
+
+    /**
+     * Calls the listeners of the user interface in the next pulse. It only runs, while there are events to deliver.
+     */
+    private final SharedAnimationTimer timer = new SharedAnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            drainUserInterface();
+        }
+    };
+
+    /**
+     * Publishes an event. Must only be called on the JavaFX application thread.
+     *
+     * @param type     The event type.
+     * @param argument The argument of the event.
+     */
+    void publish(int type, int argument) {
+        long sequence = cursor.get();
+        if (sequence - gatingSequence >= CAPACITY) {
+            gatingSequence = getMinimumSequence(sequence);
+            if (sequence - gatingSequence >= CAPACITY) {
+                // Don't wait for the next pulse, the listeners run on this thread anyway.
+                drainUserInterface();
+                gatingSequence = getMinimumSequence(sequence);
+                if (sequence - gatingSequence >= CAPACITY) {
+                    // Only possible, if a listener publishes a whole buffer of events, while it handles an event.
+                    logger.warning("A board event was dropped, because a listener of the user interface is a whole buffer behind.");
+                    return;
+                }
+            }
+        }
+        int index = (int) sequence & MASK;
+        types[index] = type;
+        arguments[index] = argument;
+        // A volatile write, which is ordered before the check of the sleeping background thread.
+        cursor.set(sequence + 1);
+        timer.start();
+        if (backgroundSubscriptions) {
+            BackgroundDispatcher.wakeUp();
+        }
+    }
+
+    /**
+     * Adds a listener.
+     *
+     * @param listener   The listener.
+     * @param background True, if the listener is called on the background thread, false, if it's called on the JavaFX application thread.
+     */
+    void subscribe(Board.BoardListener listener, boolean background) {
+        Subscription subscription = new Subscription(listener, background, cursor.get());
+        subscriptions.add(subscription);
+        if (background) {
+            backgroundSubscriptions = true;
+            BackgroundDispatcher.add(subscription);
+        }
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener.
+     */
+    void unsubscribe(Board.BoardListener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscriptions.remove(subscription);
+                if (subscription.background) {
+                    BackgroundDispatcher.remove(subscription);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of events, which were dropped, because a background listener was too slow.
+     *
+     * @return The number of dropped events of all listeners.
+     */
+    long getDroppedEvents() {
+        long droppedEvents = 0;
+        for (Subscription subscription : subscriptions) {
+            droppedEvents += subscription.droppedEvents;
+        }
+        return droppedEvents;
+    }
+
+    /**
+     * Gets the smallest sequence of the listeners of the user interface. The background listeners don't hold back the producer.
+     */
+    private long getMinimumSequence(long sequence) {
+        long minimum = sequence;
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.background) {
+                minimum = Math.min(minimum, subscription.sequence.get());
+            }
+        }
+        return minimum;
+    }
+
+    private void drainUserInterface() {
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.background) {
+                drain(subscription);
+            }
+        }
+    }
+
+    /**
+     * Calls the listener of a subscription for all events, which it has not received yet.
+     *
+     * @param subscription The subscription.
+     * @return True, if there were events.
+     */
+    private boolean drain(Subscription subscription) {
+        if (subscription.draining) {
+            // A listener of the user interface has caused new events, they are delivered after the current one.
+            return false;
+        }
+        long next = subscription.sequence.get();
+        long available = cursor.get();
+        if (next == available) {
+            return false;
+        }
+        subscription.draining = true;
+        try {
+            while (next < available) {
+                int index = (int) next & MASK;
+                int type = types[index];
+                int argument = arguments[index];
+                if (subscription.background) {
+                    // The producer doesn't wait for background listeners, so the slot may have been overwritten while it was read.
+                    VarHandle.loadLoadFence();
+                    long cursor = this.cursor.get();
+                    if (cursor - next >= CAPACITY) {
+                        long skipped = cursor - CAPACITY + 1 - next;
+                        subscription.droppedEvents += skipped;
+                        next += skipped;
+                        subscription.sequence.lazySet(next);
+                        available = cursor;
+                        continue;
+                    }
+                }
+                try {
+                    dispatch(subscription.listener, type, argument);
+                } catch (RuntimeException | LinkageError e) {
+                    // Keep the consumer alive, it may serve other boards, too.
+                    logger.log(Level.WARNING, "A board listener failed.", e);
+                }
+                next++;
+                // Release the slot for the producer.
+                subscription.sequence.lazySet(next);
+                if (!subscription.background) {
+                    // Deliver the events, which the listeners have caused meanwhile, too.
+                    available = cursor.get();
+                }
+            }
+        } finally {
+            subscription.draining = false;
+        }
+        return true;
+    }
+
+    private static void dispatch(Board.BoardListener listener, int type, int argument) {
+        switch (type) {
+            case DROPPED:
+                listener.onDropped();
+                break;
+            case ROWS_ELIMINATED:
+                listener.onRowsEliminated(argument);
+                break;
+            case GAME_OVER:
+                listener.onGameOver();
+                break;
+            case INVALID_MOVE:
+                listener.onInvalidMove();
+                break;
+            case MOVE:
+                listener.onMove(argument > 0 ? HorizontalDirection.RIGHT : HorizontalDirection.LEFT);
+                break;
+            case ROTATE:
+                listener.onRotate(argument > 0 ? HorizontalDirection.RIGHT : HorizontalDirection.LEFT);
+                break;
+            case CLEARED:
+                listener.onCleared();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event type " + type);
+        }
+    }
+
+    /**
+     * A consumer of the events.
+     */
+    private final class Subscription {
+
+        private final Board.BoardListener listener;
+
+        private final boolean background;
+
+        /**
+         * The sequence of the next event, which the listener receives.
+         */
+        private final AtomicLong sequence;
+
+        /**
+         * The number of events, which the background listener has missed. It's only written by the consumer.
+         */
+        private volatile long droppedEvents;
+
+        /**
+         * True, while the listener is called, so that it isn't called again, when it causes new events.
+         */
+        private boolean draining;
+
+        private Subscription(Board.BoardListener listener, boolean background, long sequence) {
+            this.listener = listener;
+            this.background = background;
+            this.sequence = new AtomicLong(sequence);
+        }
+
+        private boolean drain() {
+            return BoardEventBus.this.drain(this);
+        }
+    }
+
+    /**
+     * The background thread, which calls the background listeners of all boards. It sleeps, while there are no events.
+     */
+    private static final class BackgroundDispatcher implements Runnable {
+
+        private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        private static Thread thread;
+
+        private static volatile boolean sleeping;
+
+        private static synchronized void add(Subscription subscription) {
+            subscriptions.add(subscription);
+            if (thread == null) {
+                thread = new Thread(new BackgroundDispatcher(), "Board Events");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        private static void remove(Subscription subscription) {
+            subscriptions.remove(subscription);
+        }
+
+        private static void wakeUp() {
+            if (sleeping) {
+                sleeping = false;
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                boolean idle = true;
+                for (Subscription subscription : subscriptions) {
+                    if (subscription.drain()) {
+                        idle = false;
+                    }
+                }
+                if (idle) {
+                    sleeping = true;
+                    // Check again, so that no event is missed, which was published before the flag was set.
+                    for (Subscription subscription : subscriptions) {
+                        if (subscription.drain()) {
+                            idle = false;
+                        }
+                    }
+                    if (idle) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+    }
+}
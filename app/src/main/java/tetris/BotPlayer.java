@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.HorizontalDirection;
+import javafx.util.Duration;
+import tetris.engine.Game;
+import tetris.engine.simulation.BeamSearchPolicy;
+import tetris.engine.simulation.Placement;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lets a bot play the game, e.g. as attract mode or to soak-test a build.
+ * <p/>
+ * The bot plans each piece with a {@link BeamSearchPolicy}, which looks ahead at the waiting pieces, and uses the same input methods of the board as the keyboard:
+ * It rotates and moves the piece, one input per interval, and finally drops it. When the game is over, a new one is started after a few seconds.
+ * <p/>
+ * The bot is enabled by the system property "tetris.bot" (true) and the system property "tetris.bot.interval" sets the interval between inputs in milliseconds (50 by default, 0 for one input per frame).
+ *
+ * @author Christian Schudt
+ */
+final class BotPlayer implements Board.BoardListener {
+
+    private final GameController gameController;
+
+    private final BeamSearchPolicy policy = new BeamSearchPolicy(8, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+
+    private final long intervalNanos = Long.getLong("tetris.bot.interval", 50) * 1000000;
+
+    private final SharedAnimationTimer timer;
+
+    private final PauseTransition restartTransition = new PauseTransition(Duration.seconds(3));
+
+    private Placement placement;
+
+    /**
+     * The piece number of the game, for which the placement has been planned.
+     */
+    private int plannedPiece;
+
+    private long lastInput;
+
+    public BotPlayer(final GameController gameController) {
+        this.gameController = gameController;
+        timer = new SharedAnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastInput >= intervalNanos) {
+                    lastInput = now;
+                    input();
+                }
+            }
+        };
+        restartTransition.setOnFinished(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+                gameController.start();
+            }
+        });
+    }
+
+    /**
+     * Checks, if the bot is enabled by the system property "tetris.bot".
+     *
+     * @return True, if the bot should play.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("tetris.bot");
+    }
+
+    /**
+     * Starts playing, i.e. starts a new game as soon as possible and a new one after each game over.
+     */
+    public void start() {
+        gameController.getBoard().addBoardListener(this);
+        timer.start();
+        Platform.runLater(new Runnable() {
+            @Override
+            public void run() {
+                gameController.start();
+            }
+        });
+    }
+
+    /**
+     * Makes the next input: A rotation, a move or finally the drop.
+     */
+    private void input() {
+        Board board = gameController.getBoard();
+        Game game = board.getGame();
+        if (gameController.pausedProperty().get() || board.isReplaying() || game.isGameOver() || game.getCurrentPiece() == null) {
+            return;
+        }
+        if (placement == null || plannedPiece != game.getPieces()) {
+            placement = policy.plan(game);
+            plannedPiece = game.getPieces();
+        }
+        int rotations = (placement.getRotation() - game.getRotation()) & 3;
+        if (rotations != 0) {
+            if (!board.rotate(rotations == 3 ? HorizontalDirection.LEFT : HorizontalDirection.RIGHT)) {
+                board.dropDown();
+            }
+        } else if (game.getX() != placement.getX()) {
+            if (!board.move(game.getX() < placement.getX() ? HorizontalDirection.RIGHT : HorizontalDirection.LEFT)) {
+                board.dropDown();
+            }
+        } else {
+            board.dropDown();
+        }
+    }
+
+    @Override
+    public void onDropped() {
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+    }
+
+    @Override
+    public void onGameOver() {
+        placement = null;
+        restartTransition.playFromStart();
+    }
+
+    @Override
+    public void onCleared() {
+    }
+
+    @Override
+    public void onInvalidMove() {
+    }
+
+    @Override
+    public void onMove(HorizontalDirection horizontalDirection) {
+    }
+
+    @Override
+    public void onRotate(HorizontalDirection horizontalDirection) {
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Animation;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+
+
+/**
+ * Renders all locked blocks into a single {@link Canvas}, so that the number of nodes does not grow with the stack.
+ * <p/>
+ * The blocks are drawn from a {@link Playfield}, which mirrors the playfield of the game, but lags behind while rows are eliminated.
+ * Each block is drawn as image of a pre-rendered block of its color. The canvas is only redrawn on the next pulse after something has changed.
+ *
+ * @author Christian Schudt
+ */
+final class CanvasPlayfieldView extends Canvas implements PlayfieldView {
+
+    private final Playfield playfield = new Playfield();
+
+    private double squareSize;
+
+    /**
+     * The bit mask of the rows, which are currently deleted or falling.
+     */
+    private int eliminatedRows;
+
+    /**
+     * The opacity of the eliminated rows while they are deleted.
+     */
+    private double deleteOpacity = 1;
+
+    /**
+     * The progress of the falling rows, from 0 to 1.
+     */
+    private double fallProgress;
+
+    private boolean dirty = true;
+
+    private final EliminationTransition eliminationTransition = new EliminationTransition() {
+        @Override
+        protected void update(double deleteOpacity, double fallProgress) {
+            CanvasPlayfieldView.this.deleteOpacity = deleteOpacity;
+            CanvasPlayfieldView.this.fallProgress = fallProgress;
+            dirty = true;
+        }
+
+        @Override
+        protected void finish() {
+            // Now the mirrored playfield catches up with the game.
+            playfield.eliminateRows(0, Playfield.ROWS - 1);
+            eliminatedRows = 0;
+            deleteOpacity = 1;
+            fallProgress = 0;
+            dirty = true;
+        }
+    };
+
+    CanvasPlayfieldView() {
+
+        InvalidationListener invalidationListener = new InvalidationListener() {
+            @Override
+            public void invalidated(Observable observable) {
+                dirty = true;
+            }
+        };
+        widthProperty().addListener(invalidationListener);
+        heightProperty().addListener(invalidationListener);
+
+        new SharedAnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (dirty) {
+                    dirty = false;
+                    draw();
+                }
+            }
+        }.start();
+    }
+
+    @Override
+    public void setSquareSize(double squareSize) {
+        this.squareSize = squareSize;
+        dirty = true;
+    }
+
+    @Override
+    public void merge(PieceType type, int rotation, int x, int y) {
+        eliminationTransition.complete();
+        playfield.merge(type, type.getShape(rotation), x, y);
+        dirty = true;
+    }
+
+    @Override
+    public void eliminateRows(int rows) {
+        eliminationTransition.prepare();
+        eliminatedRows = rows;
+    }
+
+    @Override
+    public void addGarbage(int rows, int hole) {
+        eliminationTransition.complete();
+        playfield.addGarbage(rows, hole);
+        dirty = true;
+    }
+
+    @Override
+    public Animation getEliminationAnimation() {
+        return eliminationTransition;
+    }
+
+    @Override
+    public void clear() {
+        eliminationTransition.cancel();
+        playfield.clear();
+        eliminatedRows = 0;
+        deleteOpacity = 1;
+        fallProgress = 0;
+        dirty = true;
+    }
+
+    private void draw() {
+        double size = squareSize;
+        GraphicsContext graphicsContext = getGraphicsContext2D();
+        graphicsContext.clearRect(0, 0, getWidth(), getHeight());
+        if (size <= 0) {
+            return;
+        }
+
+        int fall = 0;
+        for (int row = Playfield.ROWS - 1; row >= 0; row--) {
+            boolean eliminated = (eliminatedRows & 1 << row) != 0;
+            if (eliminated) {
+                fall++;
+                if (deleteOpacity == 0) {
+                    continue;
+                }
+                graphicsContext.setGlobalAlpha(deleteOpacity);
+            }
+            double y = (row - Playfield.HIDDEN_ROWS + (eliminated ? 0 : fall * fallProgress)) * size;
+            int mask = playfield.getRow(row);
+            while (mask != 0) {
+                int column = Integer.numberOfTrailingZeros(mask);
+                graphicsContext.drawImage(getBlock(playfield.getCell(row, column), size), column * size, y, size, size);
+                mask &= mask - 1;
+            }
+            graphicsContext.setGlobalAlpha(1);
+        }
+    }
+
+    private Image getBlock(PieceType type, double size) {
+        return BlockSprites.get(Tetromino.getColor(type), size, BlockSprites.DEFAULT_AZIMUTH);
+    }
+}
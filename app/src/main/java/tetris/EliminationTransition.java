@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Interpolator;
+import javafx.animation.Transition;
+import javafx.util.Duration;
+
+/**
+ * Animates eliminated rows: They fade out, in and out again and afterwards the rows above them fall down.
+ * <p/>
+ * A playfield view reuses one instance for all eliminations. It calls {@link #prepare()} before the transition is played again.
+ *
+ * @author Christian Schudt
+ */
+abstract class EliminationTransition extends Transition {
+
+    /**
+     * The number of times the eliminated rows fade out and in again.
+     */
+    private static final int DELETE_CYCLES = 3;
+
+    /**
+     * The duration of a single fade in seconds.
+     */
+    private static final double DELETE_CYCLE_DURATION = 0.27;
+
+    private static final double DELETE_DURATION = DELETE_CYCLE_DURATION * DELETE_CYCLES;
+
+    private static final double FALL_DURATION = 0.1;
+
+    /**
+     * True, if the elimination has been prepared, but not yet finished.
+     */
+    private boolean pending;
+
+    EliminationTransition() {
+        setCycleDuration(Duration.seconds(DELETE_DURATION + FALL_DURATION));
+        setInterpolator(Interpolator.LINEAR);
+    }
+
+    /**
+     * Finishes the previous elimination, if it's still running, so that a new one can be prepared.
+     */
+    final void prepare() {
+        complete();
+        pending = true;
+    }
+
+    /**
+     * Finishes the current elimination immediately, if there's one.
+     */
+    final void complete() {
+        if (pending) {
+            pending = false;
+            finish();
+        }
+    }
+
+    /**
+     * Discards the current elimination without finishing it, e.g. because the playfield is cleared.
+     */
+    final void cancel() {
+        stop();
+        pending = false;
+    }
+
+    @Override
+    protected final void interpolate(double frac) {
+        if (!pending) {
+            return;
+        }
+        double time = frac * (DELETE_DURATION + FALL_DURATION);
+        if (time < DELETE_DURATION) {
+            // Fade out, in and out again, like a FadeTransition with auto reverse.
+            double cycles = time / DELETE_CYCLE_DURATION;
+            int cycle = Math.min((int) cycles, DELETE_CYCLES - 1);
+            double value = Interpolator.EASE_BOTH.interpolate(0.0, 1.0, cycles - cycle);
+            update(cycle % 2 == 0 ? 1 - value : value, 0);
+        } else {
+            update(0, Interpolator.EASE_BOTH.interpolate(0.0, 1.0, (time - DELETE_DURATION) / FALL_DURATION));
+        }
+        if (frac >= 1) {
+            complete();
+        }
+    }
+
+    /**
+     * Shows the current state of the elimination.
+     *
+     * @param deleteOpacity The opacity of the eliminated rows.
+     * @param fallProgress  The progress of the falling rows, from 0 to 1.
+     */
+    protected abstract void update(double deleteOpacity, double fallProgress);
+
+    /**
+     * Shows the final state, i.e. the eliminated rows are gone and the rows above have fallen down.
+     */
+    protected abstract void finish();
+}
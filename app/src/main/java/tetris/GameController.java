@@ -28,6 +28,7 @@ import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import tetris.engine.replay.Replay;
 
 /**
  * @author Christian Schudt
@@ -42,12 +43,26 @@ final class GameController {
 
     private final ScoreManager scoreManager;
 
+    private final ReplayManager replayManager;
+
+    private final VersusManager versusManager;
+
     private final BooleanProperty paused = new SimpleBooleanProperty();
 
     public GameController() {
-        this.board = new Board();
+        this(Board.DEFAULT_SQUARE_SIZE);
+    }
+
+    /**
+     * @param squareSize The width and height of a block of the board.
+     */
+    public GameController(double squareSize) {
+        this.board = new Board(squareSize);
         this.soundManager = new SoundManager(this);
         this.scoreManager = new ScoreManager(this);
+        this.replayManager = new ReplayManager(this);
+
+        this.versusManager = VersusManager.create(this);
 
         notificationOverlay = new NotificationOverlay(this);
         paused.addListener(new ChangeListener<Boolean>() {
@@ -60,6 +75,9 @@ final class GameController {
                 }
             }
         });
+        if (BotPlayer.isEnabled()) {
+            new BotPlayer(this).start();
+        }
     }
 
     public BooleanProperty pausedProperty() {
@@ -67,7 +85,27 @@ final class GameController {
     }
 
     public void start() {
-        board.start();
+        if (versusManager != null && versusManager.join()) {
+            // The game starts, when the match starts.
+            return;
+        }
+        Replay replay = replayManager.loadReplay();
+        if (replay != null) {
+            board.replay(replay);
+        } else {
+            board.start();
+        }
+        scoreManager.scoreProperty().set(0);
+        paused.set(false);
+    }
+
+    /**
+     * Starts a game with a given seed, e.g. for a versus match.
+     *
+     * @param seed The seed of the piece generator.
+     */
+    public void start(long seed) {
+        board.start(seed);
         scoreManager.scoreProperty().set(0);
         paused.set(false);
     }
@@ -110,12 +110,15 @@ final class InfoBox extends VBox {
             }
         });
 
+        final Preview preview = new Preview(gameController);
+
         Button btnStop = new Button("Stop");
         btnStop.setGraphic(new ImageView(new Image(getClass().getResourceAsStream("/tetris/stop.png"))));
         btnStop.setOnAction(new EventHandler<ActionEvent>() {
             @Override
             public void handle(ActionEvent actionEvent) {
                 gameController.stop();
+                preview.update();
             }
         });
         btnStop.setMaxWidth(Double.MAX_VALUE);
@@ -152,7 +155,6 @@ final class InfoBox extends VBox {
         });
         btnPause.setMaxWidth(Double.MAX_VALUE);
         btnPause.setAlignment(Pos.CENTER_LEFT);
-        Preview preview = new Preview(gameController);
 
 
         getChildren().add(checkBox);
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies with logarithmic buckets, which are linearly divided into sub buckets (like an HDR histogram).
+ * <p/>
+ * The relative error of a recorded value is below 1/128 (0.8%) over the whole range, i.e. at least as precise as an HDR histogram with 2 significant digits, and recording doesn't allocate, so that it can be used in the input handling and the pulse.
+ *
+ * @author Christian Schudt
+ */
+final class LatencyHistogram {
+
+    /**
+     * The bits of a value, which are kept. Values below 2^SUB_BUCKET_BITS are counted exactly.
+     */
+    private static final int SUB_BUCKET_BITS = 8;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    private final String name;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS];
+
+    private long count;
+
+    private long total;
+
+    private long max;
+
+    /**
+     * @param name The name of the measured latency.
+     */
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        counts[getIndex(nanos)]++;
+        count++;
+        total += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the highest SUB_BUCKET_BITS bits, the shift is the number of the bucket.
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the highest value, which is counted in a bucket.
+     */
+    private static long getHighestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Gets the value at a percentile, i.e. the value, which is higher or equal than the given share of the values.
+     *
+     * @param percentile The percentile (0 to 100).
+     * @return The value in nanoseconds.
+     */
+    long getValueAtPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += counts[i];
+            if (sum >= rank) {
+                return Math.min(getHighestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    double getMean() {
+        return count > 0 ? (double) total / count : 0;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Removes all values.
+     */
+    void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * Formats p50, p99 and p99.9 in milliseconds.
+     *
+     * @return The summary.
+     */
+    String getSummary() {
+        return String.format("%s: p50 %.2f  p99 %.2f  p99.9 %.2f  max %.2f ms (%d)", name,
+                getValueAtPercentile(50) / 1e6, getValueAtPercentile(99) / 1e6, getValueAtPercentile(99.9) / 1e6, max / 1e6, count);
+    }
+
+    /**
+     * Writes the percentile distribution in the format of HdrHistogram, which can be plotted with its tools.
+     *
+     * @param writer The writer.
+     */
+    void write(PrintWriter writer) {
+        writer.println("# " + name);
+        writer.println(String.format("%12s %14s %10s %14s", "Value(ms)", "Percentile", "TotalCount", "1/(1-Percentile)"));
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            sum += counts[i];
+            double quantile = (double) sum / count;
+            writer.println(String.format("%12.3f %14.12f %10d %14.2f", Math.min(getHighestValue(i), max) / 1e6, quantile, sum,
+                    quantile < 1 ? 1 / (1 - quantile) : Double.POSITIVE_INFINITY));
+        }
+        writer.println(String.format("#[Mean    = %12.3f, Max   = %12.3f]", getMean() / 1e6, max / 1e6));
+        writer.println(String.format("#[p50     = %12.3f, p99   = %12.3f, p99.9 = %12.3f]", getValueAtPercentile(50) / 1e6, getValueAtPercentile(99) / 1e6, getValueAtPercentile(99.9) / 1e6));
+        writer.println(String.format("#[Total count    = %12d]", count));
+        writer.println();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import tetris.engine.GameListener;
+import tetris.engine.PieceType;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the latency of the keyboard input: The time from a key event until the game has changed its state and until the next pulse has laid out the scene, i.e. right before it's rendered.
+ * <p/>
+ * Key events are stamped by an event filter of the scene, which is the earliest point, where JavaFX passes them to the application. The state changes are detected as moves, rotations and drops of the game.
+ * The latencies are recorded in histograms, which are shown in an overlay (p50, p99 and p99.9) and written to a file, when the application exits.
+ * <p/>
+ * The probe is enabled by the system property "tetris.latency" (true) and the system property "tetris.latency.file" sets the file of the histograms.
+ *
+ * @author Christian Schudt
+ */
+final class LatencyProbe implements GameListener {
+
+    private static final Logger logger = Logger.getLogger(LatencyProbe.class.getName());
+
+    /**
+     * The maximal number of key events, which are tracked within one pulse.
+     */
+    private static final int MAX_PENDING_KEYS = 16;
+
+    private final LatencyHistogram stateLatency = new LatencyHistogram("Key to state");
+
+    private final LatencyHistogram frameLatency = new LatencyHistogram("Key to frame");
+
+    private final LatencyHistogram pulseInterval = new LatencyHistogram("Pulse interval");
+
+    private final Label overlay = new Label();
+
+    /**
+     * The times of the key events, which haven't been rendered yet.
+     */
+    private final long[] pendingKeys = new long[MAX_PENDING_KEYS];
+
+    private int pendingKeyCount;
+
+    /**
+     * The time of the last key event, which hasn't changed the state yet, or 0.
+     */
+    private long lastKey;
+
+    /**
+     * If the state has changed since the last pulse due to a key event.
+     */
+    private boolean changed;
+
+    private long lastPulse;
+
+    private final Runnable pulseListener = new Runnable() {
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            if (lastPulse != 0) {
+                pulseInterval.record(now - lastPulse);
+            }
+            lastPulse = now;
+            if (changed) {
+                for (int i = 0; i < pendingKeyCount; i++) {
+                    frameLatency.record(now - pendingKeys[i]);
+                }
+            }
+            changed = false;
+            pendingKeyCount = 0;
+            lastKey = 0;
+        }
+    };
+
+    private final EventHandler<KeyEvent> keyFilter = new EventHandler<KeyEvent>() {
+        @Override
+        public void handle(KeyEvent keyEvent) {
+            KeyCode code = keyEvent.getCode();
+            if (code == KeyCode.LEFT || code == KeyCode.RIGHT || code == KeyCode.UP || code == KeyCode.SPACE) {
+                lastKey = System.nanoTime();
+                if (pendingKeyCount < MAX_PENDING_KEYS) {
+                    pendingKeys[pendingKeyCount++] = lastKey;
+                }
+            }
+        }
+    };
+
+    public LatencyProbe(GameController gameController) {
+        gameController.getBoard().getGame().addGameListener(this);
+        overlay.setTextFill(Color.WHITE);
+        overlay.setStyle("-fx-font-family:monospace;-fx-font-size:0.8em;-fx-background-color:rgba(0,0,0,0.6)");
+        overlay.setMouseTransparent(true);
+        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent actionEvent) {
+                overlay.setText(stateLatency.getSummary() + "\n" + frameLatency.getSummary() + "\n" + pulseInterval.getSummary());
+            }
+        }));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+
+        final String file = System.getProperty("tetris.latency.file");
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    write(file);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Checks, if the probe is enabled by the system property "tetris.latency".
+     *
+     * @return True, if the latency should be measured.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("tetris.latency");
+    }
+
+    /**
+     * Starts measuring the key events and pulses of a scene.
+     *
+     * @param scene The scene.
+     */
+    public void attach(Scene scene) {
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        scene.addPostLayoutPulseListener(pulseListener);
+    }
+
+    /**
+     * Stops measuring a scene.
+     *
+     * @param scene The scene.
+     */
+    public void detach(Scene scene) {
+        scene.removeEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        scene.removePostLayoutPulseListener(pulseListener);
+    }
+
+    /**
+     * Gets the overlay, which shows the percentiles.
+     *
+     * @return The overlay.
+     */
+    public Label getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Writes the histograms to a file.
+     *
+     * @param file The file.
+     */
+    public void write(String file) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            stateLatency.write(writer);
+            frameLatency.write(writer);
+            pulseInterval.write(writer);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write the latency histograms to " + file, e);
+        }
+    }
+
+    private void onStateChanged() {
+        if (lastKey != 0) {
+            stateLatency.record(System.nanoTime() - lastKey);
+            lastKey = 0;
+            changed = true;
+        }
+    }
+
+    @Override
+    public void onSpawned(PieceType type, int x, int y) {
+    }
+
+    @Override
+    public void onMoved(int direction, int x) {
+        onStateChanged();
+    }
+
+    @Override
+    public void onRotated(int direction) {
+        onStateChanged();
+    }
+
+    @Override
+    public void onMovedDown(int y) {
+    }
+
+    @Override
+    public void onDropped(int y) {
+        onStateChanged();
+    }
+
+    @Override
+    public void onInvalidMove() {
+    }
+
+    @Override
+    public void onLocked(PieceType type, int rotation, int x, int y) {
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+    }
+
+    @Override
+    public void onGameOver() {
+    }
+
+    @Override
+    public void onGarbageAdded(int rows, int hole) {
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Streams the background music with a {@link MediaPlayer}, so that a track isn't decoded into memory as a whole (as an {@link javafx.scene.media.AudioClip} would be).
+ * <p/>
+ * The tracks are configured by the system property {@code tetris.music}, a comma separated list of files, directories (with audio files) or URLs.
+ * A single track loops by the player itself. A playlist keeps the next track prerolled, while the current track plays, so that it starts without a gap at the end of the current one.
+ * Therefore at most two players exist at a time, regardless of the number and the length of the tracks.
+ * <p/>
+ * There's only one instance per process, which is shared by all boards, so that the music doesn't play several times.
+ * All players are created, controlled and disposed by the "Music Loader" thread. The JavaFX thread only hands the end of a track over to it.
+ * The tempo follows the pace of the game, i.e. the pieces per second: the faster the pieces are dropped, the faster the music plays, up to {@value #MAX_RATE} times.
+ * Each board measures its pace with its own {@link Tempo}.
+ *
+ * @author Christian Schudt
+ */
+final class MusicPlayer {
+
+    private static final Logger logger = Logger.getLogger(MusicPlayer.class.getName());
+
+    /**
+     * The maximal playback rate.
+     */
+    static final double MAX_RATE = 1.25;
+
+    /**
+     * The pace, up to which the music plays at normal speed.
+     */
+    private static final double NORMAL_PIECES_PER_SECOND = 1;
+
+    /**
+     * The pace, at which the music plays at {@link #MAX_RATE}.
+     */
+    private static final double FAST_PIECES_PER_SECOND = 2.5;
+
+    /**
+     * The rate changes in steps, so that it isn't changed with every piece.
+     */
+    private static final double RATE_STEP = 0.05;
+
+    /**
+     * The weight of the last interval in the average interval between two pieces.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private static final List<String> EXTENSIONS = Arrays.asList(".mp3", ".m4a", ".aac", ".wav", ".aif", ".aiff");
+
+    private static final MusicPlayer instance = create();
+
+    private final List<String> tracks;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Music Loader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Runnable update = new Runnable() {
+        @Override
+        public void run() {
+            update();
+        }
+    };
+
+    private volatile double volume;
+
+    private volatile double rate = 1;
+
+    private volatile boolean playing;
+
+    // The following fields are only accessed by the executor thread.
+
+    private MediaPlayer current;
+
+    private MediaPlayer next;
+
+    /**
+     * The index of the current track.
+     */
+    private int index;
+
+    /**
+     * The number of tracks, which failed in a row.
+     */
+    private int failures;
+
+    MusicPlayer(List<String> tracks) {
+        this.tracks = tracks;
+    }
+
+    /**
+     * Gets the music player for the configured tracks.
+     *
+     * @return The player or null, if no music is configured.
+     */
+    static MusicPlayer getInstance() {
+        return instance;
+    }
+
+    private static MusicPlayer create() {
+        String music = System.getProperty("tetris.music");
+        if (music == null || music.trim().isEmpty()) {
+            return null;
+        }
+        List<String> tracks = new ArrayList<>();
+        for (String entry : music.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.contains(":/")) {
+                tracks.add(entry);
+                continue;
+            }
+            File file = new File(entry);
+            if (file.isDirectory()) {
+                File[] files = file.listFiles();
+                if (files != null) {
+                    Arrays.sort(files);
+                    for (File f : files) {
+                        String name = f.getName().toLowerCase(Locale.ENGLISH);
+                        if (f.isFile() && EXTENSIONS.contains(name.substring(Math.max(0, name.lastIndexOf('.'))))) {
+                            tracks.add(f.toURI().toString());
+                        }
+                    }
+                }
+            } else if (file.isFile()) {
+                tracks.add(file.toURI().toString());
+            } else {
+                logger.warning("Music not found: " + entry);
+            }
+        }
+        if (tracks.isEmpty()) {
+            return null;
+        }
+        return new MusicPlayer(Collections.unmodifiableList(tracks));
+    }
+
+    /**
+     * Sets the volume of the music.
+     *
+     * @param volume The volume, between 0 and 1.
+     */
+    void setVolume(double volume) {
+        this.volume = volume;
+        executor.execute(update);
+    }
+
+    /**
+     * Plays or pauses the music. The music starts with the first call.
+     *
+     * @param playing True, to play the music, false to pause it.
+     */
+    void setPlaying(boolean playing) {
+        this.playing = playing;
+        executor.execute(update);
+    }
+
+    /**
+     * Gets the current playback rate.
+     *
+     * @return The rate, between 1 and {@value #MAX_RATE}.
+     */
+    double getRate() {
+        return rate;
+    }
+
+    /**
+     * Creates the measurement of the pace of a board.
+     *
+     * @return The tempo.
+     */
+    Tempo createTempo() {
+        return new Tempo();
+    }
+
+    /**
+     * Waits, until the music loader has done the pending updates.
+     *
+     * @throws Exception If the thread is interrupted or an update failed.
+     */
+    void awaitUpdates() throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
+    private void setRate(double rate) {
+        rate = Math.round(rate / RATE_STEP) * RATE_STEP;
+        if (rate != this.rate) {
+            this.rate = rate;
+            executor.execute(update);
+        }
+    }
+
+    private void update() {
+        if (current == null) {
+            // Don't retry, if no track could be played.
+            if (!playing || failures >= tracks.size()) {
+                return;
+            }
+            current = createPlayer(index);
+            // Skip the tracks, which can't be played.
+            while (current == null && ++failures < tracks.size()) {
+                index = (index + 1) % tracks.size();
+                current = createPlayer(index);
+            }
+            if (current == null) {
+                return;
+            }
+            prepareNext();
+        }
+        current.setVolume(volume);
+        current.setRate(rate);
+        if (next != null) {
+            next.setVolume(volume);
+            next.setRate(rate);
+        }
+        if (playing) {
+            current.play();
+        } else {
+            current.pause();
+        }
+    }
+
+    /**
+     * Continues with the prerolled next track, when the current track has ended.
+     *
+     * @param ended The player, which has ended.
+     */
+    private void advance(MediaPlayer ended) {
+        if (ended != current) {
+            return;
+        }
+        failures = 0;
+        index = (index + 1) % tracks.size();
+        current = next != null ? next : createPlayer(index);
+        next = null;
+        if (current != null) {
+            if (playing) {
+                current.play();
+            }
+            prepareNext();
+        }
+        ended.dispose();
+    }
+
+    /**
+     * Skips a track, which can't be played.
+     *
+     * @param failed The player, which failed.
+     */
+    private void skip(MediaPlayer failed) {
+        logger.warning("Could not play " + failed.getMedia().getSource() + ": " + failed.getError());
+        failed.dispose();
+        if (failed == next) {
+            next = null;
+        } else if (failed == current) {
+            current = null;
+            next = null;
+            failures++;
+            index = (index + 1) % tracks.size();
+            update();
+        }
+    }
+
+    private void prepareNext() {
+        if (tracks.size() > 1) {
+            next = createPlayer((index + 1) % tracks.size());
+        }
+    }
+
+    /**
+     * Creates a player for a track. It's prerolled, i.e. it starts immediately, when it's played.
+     *
+     * @param track The index of the track.
+     * @return The player or null, if the track can't be played.
+     */
+    private MediaPlayer createPlayer(int track) {
+        String source = tracks.get(track);
+        final MediaPlayer player;
+        try {
+            player = new MediaPlayer(new Media(source));
+        } catch (MediaException e) {
+            logger.warning("Could not play " + source + ": " + e.getMessage());
+            return null;
+        }
+        player.setVolume(volume);
+        player.setRate(rate);
+        if (tracks.size() == 1) {
+            player.setCycleCount(MediaPlayer.INDEFINITE);
+        }
+        // These handlers are called on the JavaFX thread.
+        player.setOnEndOfMedia(new Runnable() {
+            @Override
+            public void run() {
+                if (tracks.size() > 1) {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            advance(player);
+                        }
+                    });
+                }
+            }
+        });
+        player.setOnError(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        skip(player);
+                    }
+                });
+            }
+        });
+        return player;
+    }
+
+    /**
+     * Measures the pace of a board and sets the rate of the music accordingly. If several boards play, the rate follows the board, which has dropped a piece last.
+     * <p/>
+     * It's only accessed by the thread of the board events.
+     */
+    final class Tempo {
+
+        private long lastDropped;
+
+        /**
+         * The average interval between two pieces in seconds.
+         */
+        private double averageInterval;
+
+        /**
+         * True, if the next drop belongs to eliminated rows, not to a piece. It's reset, when the elimination animation finishes (i.e. the rows drop) or when the board is cleared (which cancels it).
+         */
+        private boolean rowsDropping;
+
+        private Tempo() {
+        }
+
+        /**
+         * Called, when a piece or eliminated rows dropped.
+         */
+        void onDropped() {
+            onDropped(System.nanoTime());
+        }
+
+        /**
+         * Called, when a piece or eliminated rows dropped.
+         *
+         * @param now The time of the drop in nanoseconds.
+         */
+        void onDropped(long now) {
+            if (rowsDropping) {
+                rowsDropping = false;
+                return;
+            }
+            if (lastDropped != 0) {
+                // A long pause (e.g. the game was paused) shouldn't slow down the music for the next minutes.
+                double interval = Math.min((now - lastDropped) / (double) TimeUnit.SECONDS.toNanos(1), 1 / NORMAL_PIECES_PER_SECOND * 2);
+                averageInterval = averageInterval == 0 ? interval : averageInterval * (1 - SMOOTHING) + interval * SMOOTHING;
+                double pace = (1 / averageInterval - NORMAL_PIECES_PER_SECOND) / (FAST_PIECES_PER_SECOND - NORMAL_PIECES_PER_SECOND);
+                setRate(1 + (MAX_RATE - 1) * Math.max(0, Math.min(1, pace)));
+            }
+            lastDropped = now;
+        }
+
+        /**
+         * Called, when rows were eliminated, i.e. the next drop doesn't belong to a piece.
+         */
+        void onRowsEliminated() {
+            rowsDropping = true;
+        }
+
+        /**
+         * Resets the tempo to the normal speed, when the game is over. The elimination animation may still be running, so its drop is still expected.
+         */
+        void resetTempo() {
+            lastDropped = 0;
+            averageInterval = 0;
+            setRate(1);
+        }
+
+        /**
+         * Called, when the board is cleared. It cancels a running elimination animation, so that its rows never drop.
+         */
+        void onCleared() {
+            rowsDropping = false;
+            resetTempo();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Animation;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import tetris.engine.PieceType;
+import tetris.engine.PieceShape;
+import tetris.engine.Playfield;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Renders each locked block as its own {@link ImageView}.
+ * <p/>
+ * The blocks are reused: Blocks of eliminated rows are hidden and put back into a pool, from which new blocks are taken.
+ * They don't listen for the size of the board, but are laid out all at once by {@link #setSquareSize(double)}.
+ *
+ * @author Christian Schudt
+ */
+final class NodePlayfieldView extends Pane implements PlayfieldView {
+
+    private static final int CELLS = Playfield.ROWS * Playfield.COLUMNS;
+
+    /**
+     * The locked blocks. If an element is null in the matrix, there is no block.
+     */
+    private final Block[][] matrix = new Block[Playfield.ROWS][Playfield.COLUMNS];
+
+    /**
+     * The blocks, which are currently not used.
+     */
+    private final Deque<Block> pool = new ArrayDeque<>();
+
+    /**
+     * The blocks of the eliminated rows.
+     */
+    private final Block[] deletedBlocks = new Block[CELLS];
+
+    /**
+     * The blocks, which fall down, and the number of rows they fall.
+     */
+    private final Block[] fallingBlocks = new Block[CELLS];
+
+    private final int[] fallingDistances = new int[CELLS];
+
+    private double squareSize;
+
+    private final EliminationTransition eliminationTransition = new EliminationTransition() {
+        @Override
+        protected void update(double deleteOpacity, double fallProgress) {
+            for (int i = 0; i < deletedCount; i++) {
+                deletedBlocks[i].setOpacity(deleteOpacity);
+            }
+            for (int i = 0; i < fallingCount; i++) {
+                Block block = fallingBlocks[i];
+                block.setTranslateY((block.row - Playfield.HIDDEN_ROWS - fallingDistances[i] * (1 - fallProgress)) * squareSize);
+            }
+        }
+
+        @Override
+        protected void finish() {
+            for (int i = 0; i < deletedCount; i++) {
+                release(deletedBlocks[i]);
+                deletedBlocks[i] = null;
+            }
+            for (int i = 0; i < fallingCount; i++) {
+                fallingBlocks[i].layout(squareSize);
+                fallingBlocks[i] = null;
+            }
+            deletedCount = 0;
+            fallingCount = 0;
+        }
+    };
+
+    private int deletedCount;
+
+    private int fallingCount;
+
+    @Override
+    public void setSquareSize(double squareSize) {
+        this.squareSize = squareSize;
+        for (Node node : getChildren()) {
+            Block block = (Block) node;
+            if (block.isVisible()) {
+                block.layout(squareSize);
+            }
+        }
+    }
+
+    @Override
+    public void merge(PieceType type, int rotation, int x, int y) {
+        eliminationTransition.complete();
+        PieceShape shape = type.getShape(rotation);
+        Color color = Tetromino.getColor(type);
+        for (int i = 0; i < shape.getHeight(); i++) {
+            int row = y + shape.getTop() + i;
+            int mask = shape.getRow(i);
+            while (mask != 0) {
+                int column = x + shape.getLeft() + Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                if (row < Playfield.ROWS && column < Playfield.COLUMNS) {
+                    Block block = acquire();
+                    block.color = color;
+                    block.row = row;
+                    block.column = column;
+                    block.layout(squareSize);
+                    block.setVisible(true);
+                    // Assign a block to the board matrix.
+                    matrix[row][column] = block;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void eliminateRows(int rows) {
+        eliminationTransition.prepare();
+        int fall = 0;
+        for (int i = matrix.length - 1; i >= 0; i--) {
+            if ((rows & 1 << i) != 0) {
+                fall++;
+                for (Block block : matrix[i]) {
+                    if (block != null) {
+                        deletedBlocks[deletedCount++] = block;
+                    }
+                }
+            } else if (fall > 0) {
+                for (int j = 0; j < matrix[i].length; j++) {
+                    Block block = matrix[i][j];
+                    if (block != null) {
+                        block.row = i + fall;
+                        fallingDistances[fallingCount] = fall;
+                        fallingBlocks[fallingCount++] = block;
+                    }
+                    matrix[i + fall][j] = block;
+                }
+            }
+        }
+        // The top rows are empty now.
+        for (int i = 0; i < fall; i++) {
+            Arrays.fill(matrix[i], null);
+        }
+    }
+
+    @Override
+    public void addGarbage(int rows, int hole) {
+        eliminationTransition.complete();
+        // Blocks, which are pushed out at the top, are no longer needed.
+        for (int i = 0; i < rows; i++) {
+            for (Block block : matrix[i]) {
+                if (block != null) {
+                    release(block);
+                }
+            }
+        }
+        for (int i = rows; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[i].length; j++) {
+                Block block = matrix[i][j];
+                if (block != null) {
+                    block.row = i - rows;
+                    block.layout(squareSize);
+                }
+                matrix[i - rows][j] = block;
+            }
+        }
+        Color color = Tetromino.getColor(null);
+        for (int i = matrix.length - rows; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[i].length; j++) {
+                Block block = null;
+                if (j != hole) {
+                    block = acquire();
+                    block.color = color;
+                    block.row = i;
+                    block.column = j;
+                    block.layout(squareSize);
+                    block.setVisible(true);
+                }
+                matrix[i][j] = block;
+            }
+        }
+    }
+
+    @Override
+    public Animation getEliminationAnimation() {
+        return eliminationTransition;
+    }
+
+    @Override
+    public void clear() {
+        eliminationTransition.cancel();
+        Arrays.fill(deletedBlocks, null);
+        Arrays.fill(fallingBlocks, null);
+        deletedCount = 0;
+        fallingCount = 0;
+        for (Block[] row : matrix) {
+            for (Block block : row) {
+                if (block != null) {
+                    release(block);
+                }
+            }
+            Arrays.fill(row, null);
+        }
+        // Also release the blocks of an unfinished elimination, which are no longer in the matrix.
+        for (int i = 0; i < getChildren().size(); i++) {
+            Block block = (Block) getChildren().get(i);
+            if (block.isVisible()) {
+                release(block);
+            }
+        }
+    }
+
+    private Block acquire() {
+        Block block = pool.poll();
+        if (block == null) {
+            block = new Block();
+            getChildren().add(block);
+        }
+        return block;
+    }
+
+    private void release(Block block) {
+        block.setVisible(false);
+        block.setOpacity(1);
+        pool.push(block);
+    }
+
+    /**
+     * A locked block.
+     */
+    private static final class Block extends ImageView {
+
+        private Color color;
+
+        private int row;
+
+        private int column;
+
+        private void layout(double size) {
+            if (color != null) {
+                setImage(BlockSprites.get(color, size, BlockSprites.DEFAULT_AZIMUTH));
+            }
+            setFitWidth(size);
+            setFitHeight(size);
+            setTranslateX(size * column);
+            setTranslateY(size * (row - Playfield.HIDDEN_ROWS));
+        }
+    }
+}
@@ -82,10 +82,23 @@ final class NotificationOverlay extends StackPane implements Board.BoardListener
         fadeTransition.playFromStart();
     }
 
+    /**
+     * Shows a message, which fades out after a few seconds.
+     *
+     * @param message The message.
+     */
+    void showMessage(String message) {
+        showMessage(message, "1.5em");
+    }
+
     private void showGameOver() {
-        final Label label = new Label("Game Over");
+        showMessage("Game Over", "4em");
+    }
+
+    private void showMessage(String message, String fontSize) {
+        final Label label = new Label(message);
         label.setTextFill(Color.WHITE);
-        label.setStyle("-fx-font-weight:bold;-fx-font-size:4em");
+        label.setStyle("-fx-font-weight:bold;-fx-font-size:" + fontSize);
         label.setOpacity(0);
         getChildren().add(label);
 
@@ -125,6 +138,10 @@ final class NotificationOverlay extends StackPane implements Board.BoardListener
         //setStyle("-fx-background-color: rgba(51, 51, 51, 0.6)");
     }
 
+    @Override
+    public void onCleared() {
+    }
+
     @Override
     public void onInvalidMove() {
     }
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Animation;
+import tetris.engine.PieceType;
+
+/**
+ * Renders the locked blocks of the board.
+ * <p/>
+ * When rows are eliminated, {@link #eliminateRows(int)} is called and afterwards the {@linkplain #getEliminationAnimation() elimination animation} is played.
+ * The animation is the same for every elimination, so that no animations are created while the game is running.
+ *
+ * @author Christian Schudt
+ */
+interface PlayfieldView {
+
+    /**
+     * Sets the size of a block. All blocks are laid out again.
+     *
+     * @param squareSize The width and height of a block.
+     */
+    void setSquareSize(double squareSize);
+
+    /**
+     * Adds the blocks of a locked piece.
+     *
+     * @param type     The type of the piece.
+     * @param rotation The orientation of the piece.
+     * @param x        The X position of the piece's matrix.
+     * @param y        The Y position of the piece's matrix.
+     */
+    void merge(PieceType type, int rotation, int x, int y);
+
+    /**
+     * Prepares the elimination animation for the given rows.
+     *
+     * @param rows The bit mask of the eliminated rows, where bit i stands for row i.
+     */
+    void eliminateRows(int rows);
+
+    /**
+     * Inserts garbage rows at the bottom and pushes all blocks up. An unfinished elimination is completed first.
+     *
+     * @param rows The number of rows.
+     * @param hole The column of the hole.
+     */
+    void addGarbage(int rows, int hole);
+
+    /**
+     * Gets the animation, which deletes the eliminated rows and lets the rows above fall down.
+     *
+     * @return The animation.
+     */
+    Animation getEliminationAnimation();
+
+    /**
+     * Removes all blocks.
+     */
+    void clear();
+}
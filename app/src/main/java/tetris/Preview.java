@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.FadeTransition;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import tetris.engine.Game;
+import tetris.engine.GameListener;
+import tetris.engine.PieceType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The preview for the next tetrominos. The next one is shown in full size, the following ones smaller below it.
+ * <p/>
+ * The preview reads the waiting pieces from the game, whenever a piece spawns, and shows them with cached nodes:
+ * Each piece type has as many nodes as it's shown at the same time, so that no nodes are created, once all slots have been filled with each type.
+ *
+ * @author Christian Schudt
+ */
+final class Preview extends VBox implements GameListener {
+
+    /**
+     * The scale of the tetrominos after the next one.
+     */
+    private static final double SMALL_SCALE = 0.5;
+
+    /**
+     * The shadow is shared by all tetrominos.
+     */
+    private static final DropShadow DROP_SHADOW = new DropShadow(20, Color.DARKGREY);
+
+    private final Game game;
+
+    private final StackPane[] slots;
+
+    /**
+     * The cached nodes by the ordinal of the piece type. Each is a group, which holds a tetromino, so that the scale of the tetromino is included in the layout.
+     */
+    private final List<List<Group>> cache = new ArrayList<>();
+
+    /**
+     * The number of cached nodes per piece type, which are in use by the current update.
+     */
+    private final int[] used = new int[PieceType.values().length];
+
+    private final FadeTransition fadeTransition;
+
+    private double squareSize;
+
+    public Preview(GameController gameController) {
+        Board board = gameController.getBoard();
+        game = board.getGame();
+        squareSize = board.getSquareSize();
+        for (int i = 0; i < used.length; i++) {
+            cache.add(new ArrayList<Group>());
+        }
+
+        slots = new StackPane[Board.PREVIEWS];
+        for (int i = 0; i < slots.length; i++) {
+            StackPane slot = new StackPane();
+            slot.setAlignment(Pos.CENTER);
+            double size = i == 0 ? 140 : 140 * SMALL_SCALE;
+            slot.setPrefSize(140, size);
+            slot.setMinHeight(size);
+            slots[i] = slot;
+        }
+        getChildren().addAll(slots);
+        setAlignment(Pos.TOP_CENTER);
+
+        fadeTransition = new FadeTransition(Duration.seconds(0.1), slots[0]);
+        fadeTransition.setDelay(Duration.seconds(0.1));
+        fadeTransition.setFromValue(0);
+        fadeTransition.setToValue(1);
+
+        board.squareSizeProperty().addListener(new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observableValue, Number oldValue, Number newValue) {
+                squareSize = newValue.doubleValue();
+                for (List<Group> nodes : cache) {
+                    for (Group node : nodes) {
+                        ((Tetromino) node.getChildren().get(0)).setSquareSize(squareSize);
+                    }
+                }
+            }
+        });
+        game.addGameListener(this);
+        update();
+    }
+
+    /**
+     * Shows the waiting pieces of the game.
+     */
+    void update() {
+        for (int i = 0; i < used.length; i++) {
+            used[i] = 0;
+        }
+        int count = Math.min(slots.length, game.getWaitingPieceCount());
+        for (int i = 0; i < slots.length; i++) {
+            ObservableList<Node> children = slots[i].getChildren();
+            if (i < count) {
+                Group node = acquire(game.getWaitingPiece(i), i == 0 ? 1 : SMALL_SCALE);
+                if (children.size() != 1 || children.get(0) != node) {
+                    children.setAll(node);
+                }
+            } else if (!children.isEmpty()) {
+                children.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets a cached node for a piece type, which is not used yet by the current update, or creates it.
+     */
+    private Group acquire(PieceType type, double scale) {
+        List<Group> nodes = cache.get(type.ordinal());
+        int index = used[type.ordinal()]++;
+        if (index == nodes.size()) {
+            Tetromino tetromino = new Tetromino(type, squareSize);
+            Group node = new Group(tetromino);
+            node.setEffect(DROP_SHADOW);
+            nodes.add(node);
+        }
+        Group node = nodes.get(index);
+        Node tetromino = node.getChildren().get(0);
+        tetromino.setScaleX(scale);
+        tetromino.setScaleY(scale);
+        return node;
+    }
+
+    @Override
+    public void onSpawned(PieceType type, int x, int y) {
+        update();
+        fadeTransition.playFromStart();
+    }
+
+    @Override
+    public void onMoved(int direction, int x) {
+    }
+
+    @Override
+    public void onRotated(int direction) {
+    }
+
+    @Override
+    public void onMovedDown(int y) {
+    }
+
+    @Override
+    public void onDropped(int y) {
+    }
+
+    @Override
+    public void onInvalidMove() {
+    }
+
+    @Override
+    public void onLocked(PieceType type, int rotation, int x, int y) {
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+    }
+
+    @Override
+    public void onGameOver() {
+        update();
+    }
+
+    @Override
+    public void onGarbageAdded(int rows, int hole) {
+    }
+}
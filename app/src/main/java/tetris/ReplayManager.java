@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.geometry.HorizontalDirection;
+import tetris.engine.replay.Replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads and saves replays.
+ * <p/>
+ * If the system property "tetris.replay" is set to a replay file, this replay is played instead of a new game.
+ * If the system property "tetris.replay.dir" is set to a directory, the replay of each game is saved there, when the game is over.
+ *
+ * @author Christian Schudt
+ */
+final class ReplayManager implements Board.BoardListener {
+
+    private static final Logger logger = Logger.getLogger(ReplayManager.class.getName());
+
+    private final GameController gameController;
+
+    public ReplayManager(GameController gameController) {
+        this.gameController = gameController;
+        gameController.getBoard().addBoardListener(this);
+    }
+
+    /**
+     * Loads the replay, which should be played instead of a new game.
+     *
+     * @return The replay or null, if no replay should be played.
+     */
+    public Replay loadReplay() {
+        String file = System.getProperty("tetris.replay");
+        if (file == null) {
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return Replay.read(in);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not load replay " + file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void onDropped() {
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+    }
+
+    @Override
+    public void onGameOver() {
+        String directory = System.getProperty("tetris.replay.dir");
+        Board board = gameController.getBoard();
+        if (directory == null || board.isReplaying()) {
+            return;
+        }
+        Replay replay = board.getReplay();
+        File file = new File(directory, "tetris-" + System.currentTimeMillis() + ".replay");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            replay.write(out);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not save replay " + file, e);
+        }
+    }
+
+    @Override
+    public void onCleared() {
+    }
+
+    @Override
+    public void onInvalidMove() {
+    }
+
+    @Override
+    public void onMove(HorizontalDirection horizontalDirection) {
+    }
+
+    @Override
+    public void onRotate(HorizontalDirection horizontalDirection) {
+    }
+}
@@ -29,7 +29,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.geometry.HorizontalDirection;
 
 /**
- * Manages the score.
+ * Manages the score. The score itself is calculated by the {@link tetris.engine.Game}, this class exposes it as property.
  *
  * @author Christian Schudt
  */
@@ -48,36 +48,24 @@ final class ScoreManager implements Board.BoardListener {
         return score;
     }
 
-    private void addScore(int score) {
-        this.score.set(this.score.get() + score);
-    }
-
     @Override
     public void onDropped() {
     }
 
     @Override
     public void onRowsEliminated(int rows) {
-        switch (rows) {
-            case 1:
-                addScore(40);
-                break;
-            case 2:
-                addScore(100);
-                break;
-            case 3:
-                addScore(300);
-                break;
-            case 4:
-                addScore(1200);
-                break;
-        }
+        // The game keeps the score, just reflect it.
+        score.set(gameController.getBoard().getGame().getScore());
     }
 
     @Override
     public void onGameOver() {
     }
 
+    @Override
+    public void onCleared() {
+    }
+
     @Override
     public void onInvalidMove() {
     }
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timer, which is called in each frame like an {@link AnimationTimer}, but all instances share a single animation timer.
+ * <p/>
+ * When many boards run in one scene, they are all driven from one pulse handler and the time, which is spent in all handlers, can be measured.
+ * Timers must only be used on the JavaFX application thread.
+ *
+ * @author Christian Schudt
+ */
+abstract class SharedAnimationTimer {
+
+    private static final List<SharedAnimationTimer> timers = new ArrayList<>();
+
+    /**
+     * The running timers, which is copied on each change, so that timers can be started and stopped while the pulse is handled.
+     */
+    private static SharedAnimationTimer[] running = new SharedAnimationTimer[0];
+
+    private static long pulses;
+
+    private static long handlerNanos;
+
+    private static final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            long start = System.nanoTime();
+            for (SharedAnimationTimer timer : running) {
+                if (timer.started) {
+                    timer.handle(now);
+                }
+            }
+            handlerNanos += System.nanoTime() - start;
+            pulses++;
+        }
+    };
+
+    private boolean started;
+
+    /**
+     * Starts the timer. Once started, {@link #handle(long)} is called in every frame.
+     */
+    public final void start() {
+        if (!started) {
+            started = true;
+            timers.add(this);
+            running = timers.toArray(new SharedAnimationTimer[timers.size()]);
+            if (timers.size() == 1) {
+                pulse.start();
+            }
+        }
+    }
+
+    /**
+     * Stops the timer.
+     */
+    public final void stop() {
+        if (started) {
+            started = false;
+            timers.remove(this);
+            running = timers.toArray(new SharedAnimationTimer[timers.size()]);
+            if (timers.isEmpty()) {
+                pulse.stop();
+            }
+        }
+    }
+
+    /**
+     * Called in every frame, while the timer is started.
+     *
+     * @param now The timestamp of the current frame in nanoseconds.
+     */
+    public abstract void handle(long now);
+
+    /**
+     * Gets the number of pulses, in which at least one timer was started.
+     *
+     * @return The number of pulses.
+     */
+    static long getPulses() {
+        return pulses;
+    }
+
+    /**
+     * Gets the time, which has been spent in all handlers of all pulses.
+     *
+     * @return The time in nanoseconds.
+     */
+    static long getHandlerNanos() {
+        return handlerNanos;
+    }
+}
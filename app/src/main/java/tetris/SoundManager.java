@@ -0,0 +1,231 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.HorizontalDirection;
+
+/**
+ * Plays the sounds of the board. It listens on the background thread of the board events, so that starting a clip never delays the input handling.
+ * <p/>
+ * The clips are loaded in the background by the {@link AudioCache} and shared by all boards. All boards play their sounds through one {@link SoundMixer},
+ * which limits the voices of each sound and coalesces the sounds of the same tick, so that e.g. fast repeated moves or many bots don't pile up the same clip.
+ * <p/>
+ * If music is configured, it's streamed by the {@link MusicPlayer} with the {@linkplain #volumeProperty() music volume}. It pauses, while the game is paused or muted.
+ * The music player is shared by all boards, so the settings, which have been changed last, apply.
+ *
+ * @author Christian Schudt
+ */
+final class SoundManager implements Board.BoardListener {
+
+    private static final SoundMixer mixer = Sound.createMixer();
+
+    private DoubleProperty volume = new SimpleDoubleProperty();
+
+    private DoubleProperty soundVolume = new SimpleDoubleProperty();
+
+    private BooleanProperty mute = new SimpleBooleanProperty();
+
+    /**
+     * The sound volume for the thread of the board events. The properties are bound to the controls and may only be read on the JavaFX thread.
+     */
+    private volatile double currentSoundVolume;
+
+    private volatile boolean muted;
+
+    private static final MusicPlayer musicPlayer = MusicPlayer.getInstance();
+
+    private final MusicPlayer.Tempo tempo = musicPlayer != null ? musicPlayer.createTempo() : null;
+
+    public SoundManager(final GameController gameController) {
+        gameController.getBoard().addBackgroundBoardListener(this);
+        Sound.preload();
+        soundVolume.addListener(new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observableValue, Number oldValue, Number newValue) {
+                currentSoundVolume = newValue.doubleValue();
+            }
+        });
+        mute.addListener(new ChangeListener<Boolean>() {
+            @Override
+            public void changed(ObservableValue<? extends Boolean> observableValue, Boolean oldValue, Boolean newValue) {
+                muted = newValue;
+            }
+        });
+        if (musicPlayer != null) {
+            // These listeners only fire, when the user changes the settings, not during the game.
+            ChangeListener<Object> musicListener = new ChangeListener<Object>() {
+                @Override
+                public void changed(ObservableValue<?> observableValue, Object o, Object o2) {
+                    musicPlayer.setVolume(volume.get());
+                    musicPlayer.setPlaying(!mute.get() && !gameController.pausedProperty().get());
+                }
+            };
+            volume.addListener(musicListener);
+            mute.addListener(musicListener);
+            gameController.pausedProperty().addListener(musicListener);
+            musicListener.changed(null, null, null);
+        }
+    }
+
+    /**
+     * Plays a sound with the sound volume of this manager. The audio clips are shared by all boards, therefore the volume is passed to each playback instead of being bound to the clip.
+     *
+     * @param sound The sound.
+     */
+    private void play(Sound sound) {
+        mixer.play(sound.ordinal(), currentSoundVolume);
+    }
+
+    public DoubleProperty volumeProperty() {
+        return volume;
+    }
+
+    public DoubleProperty soundVolumeProperty() {
+        return soundVolume;
+    }
+
+    public BooleanProperty muteProperty() {
+        return mute;
+    }
+
+    public void onDropped() {
+        if (tempo != null) {
+            tempo.onDropped();
+        }
+        if (!muted) {
+            play(Sound.DROPPED);
+        }
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+        if (tempo != null) {
+            tempo.onRowsEliminated();
+        }
+        if (!muted) {
+            if (rows < 4) {
+                play(Sound.VANISH);
+            } else {
+                play(Sound.TETRIS);
+            }
+        }
+    }
+
+    @Override
+    public void onGameOver() {
+        if (tempo != null) {
+            tempo.resetTempo();
+        }
+        if (!muted) {
+            play(Sound.GAME_OVER);
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        if (tempo != null) {
+            tempo.onCleared();
+        }
+    }
+
+    @Override
+    public void onInvalidMove() {
+        if (!muted) {
+            play(Sound.INVALID_MOVE);
+        }
+    }
+
+    @Override
+    public void onMove(HorizontalDirection horizontalDirection) {
+        if (!muted) {
+            play(Sound.MOVE);
+        }
+    }
+
+    @Override
+    public void onRotate(HorizontalDirection horizontalDirection) {
+        if (!muted) {
+            play(Sound.ROTATE);
+        }
+    }
+
+    /**
+     * The sounds with their voice limits. The length of a voice is the approximate length of the clip.
+     */
+    private enum Sound {
+
+        ROTATE("tetris/cartoon130.mp3", 2, 300, 50),
+        TETRIS("tetris/cartoon034.mp3", 1, 1100, 0),
+        DROPPED("tetris/cartoon035.mp3", 3, 700, 30),
+        INVALID_MOVE("tetris/cartoon155.mp3", 1, 400, 100),
+        MOVE("tetris/cartoon136.mp3", 2, 350, 40),
+        VANISH("tetris/cartoon017.mp3", 2, 4700, 50),
+        GAME_OVER("tetris/cartoon014.mp3", 1, 3300, 0);
+
+        private final String resource;
+
+        private final int maxVoices;
+
+        private final long voiceMillis;
+
+        private final long retriggerMillis;
+
+        private Sound(String resource, int maxVoices, long voiceMillis, long retriggerMillis) {
+            this.resource = resource;
+            this.maxVoices = maxVoices;
+            this.voiceMillis = voiceMillis;
+            this.retriggerMillis = retriggerMillis;
+        }
+
+        /**
+         * Creates the mixer with one channel per sound, which is the sound's ordinal.
+         *
+         * @return The mixer.
+         */
+        private static SoundMixer createMixer() {
+            SoundMixer mixer = new SoundMixer(values().length);
+            for (Sound sound : values()) {
+                mixer.configure(sound.ordinal(), sound.resource, sound.maxVoices, sound.voiceMillis, sound.retriggerMillis);
+            }
+            mixer.start();
+            return mixer;
+        }
+
+        /**
+         * Starts loading all sounds in the background.
+         */
+        private static void preload() {
+            for (Sound sound : values()) {
+                AudioCache.preload(sound.resource);
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.media.AudioClip;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Mixes the sounds of all boards on its own thread, so that the board events never wait for the audio stack.
+ * <p/>
+ * A request only sets the bit of its channel and raises the channel's volume (both lock-free). The mixer thread takes all requested channels at once and waits one tick afterwards,
+ * so that the requests of the same tick (e.g. several boards dropping a piece or a key repeating faster than the game) are coalesced into one voice with the loudest volume.
+ * Each channel plays at most a few voices at the same time and isn't retriggered faster than its minimum interval, and all channels together play at most {@value #MAX_VOICES} voices.
+ * Requests exceeding these limits are rejected.
+ * <p/>
+ * {@link AudioClip} doesn't tell, when a single voice has ended, therefore each channel estimates it by the length of its clip.
+ *
+ * @author Christian Schudt
+ */
+final class SoundMixer {
+
+    /**
+     * The maximal number of voices of all channels.
+     */
+    static final int MAX_VOICES = 8;
+
+    /**
+     * The interval, in which requests are coalesced.
+     */
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    /**
+     * Plays the clips of the {@link AudioCache}.
+     */
+    static final ClipPlayer AUDIO_CLIPS = new ClipPlayer() {
+        @Override
+        public boolean play(String resource, double volume) {
+            AudioClip clip = AudioCache.get(resource);
+            if (clip == null) {
+                return false;
+            }
+            clip.play(volume);
+            return true;
+        }
+    };
+
+    private static final LongSupplier SYSTEM_CLOCK = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Channel[] channels;
+
+    private final ClipPlayer player;
+
+    private final LongSupplier clock;
+
+    /**
+     * The bits of the requested channels.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The loudest requested volume of each channel (as raw long bits), since the mixer took the last requests.
+     */
+    private final AtomicLongArray volumes;
+
+    private final Thread thread;
+
+    private volatile boolean sleeping;
+
+    private volatile long played;
+
+    private volatile long coalesced;
+
+    private volatile long rejected;
+
+    /**
+     * Creates a mixer, which plays the clips of the {@link AudioCache}.
+     *
+     * @param channels The number of channels, at most 32.
+     */
+    SoundMixer(int channels) {
+        this(channels, AUDIO_CLIPS, SYSTEM_CLOCK);
+    }
+
+    /**
+     * Creates a mixer.
+     *
+     * @param channels The number of channels, at most 32.
+     * @param player   Plays the clips.
+     * @param clock    The clock in nanoseconds.
+     */
+    SoundMixer(int channels, ClipPlayer player, LongSupplier clock) {
+        if (channels > Integer.SIZE) {
+            throw new IllegalArgumentException("At most " + Integer.SIZE + " channels are supported.");
+        }
+        this.channels = new Channel[channels];
+        this.volumes = new AtomicLongArray(channels);
+        this.player = player;
+        this.clock = clock;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mix();
+            }
+        }, "Sound Mixer");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the thread of the mixer. Without it, the requests are only mixed by {@link #mixTick()}.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Configures a channel. This must happen before the channel is requested.
+     *
+     * @param channel         The channel.
+     * @param resource        The resource name of the clip, which is loaded by the {@link AudioCache}.
+     * @param maxVoices       The maximal number of voices of this channel, which play at the same time.
+     * @param voiceMillis     The estimated length of a voice, i.e. of the clip.
+     * @param retriggerMillis The minimal interval between two voices of this channel.
+     */
+    void configure(int channel, String resource, int maxVoices, long voiceMillis, long retriggerMillis) {
+        channels[channel] = new Channel(resource, maxVoices, TimeUnit.MILLISECONDS.toNanos(voiceMillis), TimeUnit.MILLISECONDS.toNanos(retriggerMillis), clock.getAsLong());
+    }
+
+    /**
+     * Requests a voice of a channel. This never blocks, the voice is started (or rejected) by the mixer thread.
+     *
+     * @param channel The channel.
+     * @param volume  The volume, between 0 and 1.
+     */
+    void play(int channel, double volume) {
+        if (volume <= 0) {
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(volume);
+        long current;
+        do {
+            current = volumes.get(channel);
+        } while (Double.longBitsToDouble(current) < volume && !volumes.compareAndSet(channel, current, bits));
+
+        int bit = 1 << channel;
+        int mask;
+        do {
+            mask = pending.get();
+        } while ((mask & bit) == 0 && !pending.compareAndSet(mask, mask | bit));
+        if ((mask & bit) != 0) {
+            coalesced++;
+        } else if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Gets the number of started voices.
+     *
+     * @return The number of voices.
+     */
+    long getPlayed() {
+        return played;
+    }
+
+    /**
+     * Gets the number of requests, which were coalesced with another request of the same tick. This is only an estimate, as it's counted without synchronization.
+     *
+     * @return The number of coalesced requests.
+     */
+    long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Gets the number of requests, which were rejected, because a voice limit or the retrigger interval was exceeded, or the clip wasn't loaded yet.
+     *
+     * @return The number of rejected requests.
+     */
+    long getRejected() {
+        return rejected;
+    }
+
+    private void mix() {
+        while (true) {
+            if (mixTick()) {
+                // Coalesce the requests of the next tick.
+                LockSupport.parkNanos(TICK_NANOS);
+                continue;
+            }
+            sleeping = true;
+            // Check again, a request might have missed the flag.
+            if (pending.get() == 0) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+    }
+
+    /**
+     * Takes all requests, which have been made since the last tick, and starts their voices (or rejects them).
+     *
+     * @return True, if there were requests.
+     */
+    boolean mixTick() {
+        int mask = pending.getAndSet(0);
+        if (mask == 0) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        int active = countVoices(now);
+        while (mask != 0) {
+            int channel = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            double volume = Double.longBitsToDouble(volumes.getAndSet(channel, 0L));
+            // The volume of a request, which raced with the last round, has already been played.
+            if (volume > 0) {
+                if (active < MAX_VOICES && channels[channel].play(player, volume, now)) {
+                    active++;
+                    played++;
+                } else {
+                    rejected++;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int countVoices(long now) {
+        int count = 0;
+        for (Channel channel : channels) {
+            if (channel != null) {
+                count += channel.countVoices(now);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A channel plays the voices of one clip. It's only accessed by the mixer thread.
+     */
+    private static final class Channel {
+
+        private final String resource;
+
+        private final long voiceNanos;
+
+        private final long retriggerNanos;
+
+        /**
+         * The start times of the last voices, as ring buffer.
+         */
+        private final long[] starts;
+
+        private int next;
+
+        private Channel(String resource, int maxVoices, long voiceNanos, long retriggerNanos, long now) {
+            this.resource = resource;
+            this.voiceNanos = voiceNanos;
+            this.retriggerNanos = retriggerNanos;
+            this.starts = new long[maxVoices];
+            // No voice has been started yet.
+            long past = now - Math.max(voiceNanos, retriggerNanos) - 1;
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = past;
+            }
+        }
+
+        private int countVoices(long now) {
+            int count = 0;
+            for (long start : starts) {
+                if (now - start < voiceNanos) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Starts a voice, if the limits of this channel allow it.
+         *
+         * @param player The player of the clip.
+         * @param volume The volume.
+         * @param now    The current time.
+         * @return True, if the voice has been started.
+         */
+        private boolean play(ClipPlayer player, double volume, long now) {
+            long last = starts[(next + starts.length - 1) % starts.length];
+            // The oldest voice is replaced in the ring buffer, so it has to be over.
+            if (now - last < retriggerNanos || now - starts[next] < voiceNanos) {
+                return false;
+            }
+            // Sounds, which aren't loaded yet, are skipped instead of waiting for them.
+            if (!player.play(resource, volume)) {
+                return false;
+            }
+            starts[next] = now;
+            next = (next + 1) % starts.length;
+            return true;
+        }
+    }
+
+    /**
+     * Plays the clip of a channel.
+     */
+    interface ClipPlayer {
+
+        /**
+         * Plays a clip.
+         *
+         * @param resource The resource name of the clip.
+         * @param volume   The volume.
+         * @return False, if the clip can't be played (yet), e.g. because it isn't loaded.
+         */
+        boolean play(String resource, double volume);
+    }
+}
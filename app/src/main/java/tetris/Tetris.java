@@ -42,6 +42,8 @@ import javafx.scene.layout.StackPane;
  */
 public final class Tetris extends HBox {
 
+    private static final String STYLESHEET = "tetris/styles.css";
+
     /**
      * Stores if the arrow down key was pressed, to prevent repeated events.
      */
@@ -49,23 +51,45 @@ public final class Tetris extends HBox {
 
 
     public Tetris() {
+        this(Board.DEFAULT_SQUARE_SIZE);
+    }
+
+    /**
+     * @param squareSize The width and height of a block of the board.
+     */
+    public Tetris(double squareSize) {
 
         setId("tetris");
 
+        final GameController gameController = new GameController(squareSize);
+        final LatencyProbe latencyProbe = LatencyProbe.isEnabled() ? new LatencyProbe(gameController) : null;
+
         sceneProperty().addListener(new ChangeListener<Scene>() {
             @Override
             public void changed(ObservableValue<? extends Scene> observableValue, Scene scene, Scene scene2) {
-                if (scene2 != null) {
-                    scene2.getStylesheets().add("tetris/styles.css");
+                // Several instances can share one scene.
+                if (scene2 != null && !scene2.getStylesheets().contains(STYLESHEET)) {
+                    scene2.getStylesheets().add(STYLESHEET);
+                }
+                if (latencyProbe != null) {
+                    if (scene != null) {
+                        latencyProbe.detach(scene);
+                    }
+                    if (scene2 != null) {
+                        latencyProbe.attach(scene2);
+                    }
                 }
             }
         });
-        final GameController gameController = new GameController();
 
         StackPane stackPane = new StackPane();
         stackPane.getChildren().add(gameController.getBoard());
 
         stackPane.getChildren().add(gameController.getNotificationOverlay());
+        if (latencyProbe != null) {
+            stackPane.getChildren().add(latencyProbe.getOverlay());
+            StackPane.setAlignment(latencyProbe.getOverlay(), Pos.BOTTOM_LEFT);
+        }
         stackPane.setAlignment(Pos.TOP_CENTER);
 
         getChildren().add(stackPane);
@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.layout.GridPane;
+
+/**
+ * Shows several independent games in one scene, e.g. for the player stations of an arcade install.
+ * <p/>
+ * Each station has its own board and controls and gets the keyboard input, when its board has the focus.
+ * All boards are driven by one shared pulse handler ({@link SharedAnimationTimer}) and share the block sprites and audio clips.
+ *
+ * @author Christian Schudt
+ */
+public final class TetrisGrid extends GridPane {
+
+    /**
+     * @param boards     The number of boards.
+     * @param columns    The number of boards per row.
+     * @param squareSize The width and height of a block.
+     */
+    public TetrisGrid(int boards, int columns, double squareSize) {
+        if (boards < 1 || columns < 1) {
+            throw new IllegalArgumentException("boards and columns must be positive.");
+        }
+        setId("tetrisGrid");
+        for (int i = 0; i < boards; i++) {
+            add(new Tetris(squareSize), i % columns, i / columns);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.Group;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.transform.Rotate;
+import tetris.engine.PieceType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The visual representation of a {@link PieceType}.
+ *
+ * @author Christian Schudt
+ */
+final class Tetromino extends Group implements Cloneable {
+
+    private static final Map<PieceType, Color> COLORS = new EnumMap<>(PieceType.class);
+
+    /**
+     * The color of garbage blocks, which don't belong to a piece.
+     */
+    private static final Color GARBAGE_COLOR = Color.GRAY;
+
+    static {
+        COLORS.put(PieceType.I, Color.CYAN);
+        COLORS.put(PieceType.J, Color.BLUE);
+        COLORS.put(PieceType.L, Color.ORANGE);
+        COLORS.put(PieceType.O, Color.YELLOW);
+        COLORS.put(PieceType.S, Color.GREENYELLOW);
+        COLORS.put(PieceType.T, Color.PURPLE);
+        COLORS.put(PieceType.Z, Color.ORANGERED);
+    }
+
+    /**
+     * The blocks, which show an image of a lit block. Empty cells of the matrix have no node.
+     */
+    private final List<ImageView> blocks = new ArrayList<>();
+
+    /**
+     * Rotates the tetromino around the center of its matrix, which is not the center of its blocks.
+     */
+    private final Rotate rotate = new Rotate();
+
+    private final int size;
+
+    private Color color;
+
+    private PieceType type;
+
+    private double squareSize;
+
+    /**
+     * The direction of the light. This has to be rotated, too, as the tetrominos rotate.
+     */
+    private double azimuth = BlockSprites.DEFAULT_AZIMUTH;
+
+    Tetromino(PieceType type, double squareSize) {
+        int[][] matrix = type.getMatrix();
+        this.type = type;
+        this.size = matrix.length;
+        color = getColor(type);
+
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[i].length; j++) {
+                if (matrix[i][j] == 1) {
+                    ImageView block = new ImageView();
+                    // Remember the position in the matrix for the layout.
+                    block.getProperties().put("row", i);
+                    block.getProperties().put("column", j);
+                    blocks.add(block);
+                    getChildren().add(block);
+                }
+            }
+        }
+        getTransforms().add(rotate);
+        // The position is only set by the translation, the layout bounds would depend on the empty rows and columns of the matrix.
+        setManaged(false);
+        setSquareSize(squareSize);
+
+        //setCacheHint(CacheHint.SPEED);
+        //setCache(true);
+    }
+
+    /**
+     * Sets the size of a block and lays out all blocks accordingly.
+     * <p/>
+     * The board calls this method for all its tetrominos, when it is resized, so that the tetrominos don't need to listen for the size themselves.
+     *
+     * @param squareSize The width and height of a block.
+     */
+    void setSquareSize(double squareSize) {
+        this.squareSize = squareSize;
+        for (ImageView block : blocks) {
+            block.setImage(BlockSprites.get(color, squareSize, azimuth));
+            block.setFitWidth(squareSize);
+            block.setFitHeight(squareSize);
+            block.setTranslateY(squareSize * (Integer) block.getProperties().get("row"));
+            block.setTranslateX(squareSize * (Integer) block.getProperties().get("column"));
+        }
+        rotate.setPivotX(squareSize * size / 2);
+        rotate.setPivotY(squareSize * size / 2);
+    }
+
+    double getSquareSize() {
+        return squareSize;
+    }
+
+    /**
+     * Resets the tetromino for a new piece, when it's taken from the pool: unrotated, opaque and in the given size.
+     *
+     * @param squareSize The width and height of a block.
+     */
+    void reset(double squareSize) {
+        rotate.setAngle(0);
+        setOpacity(1);
+        setTranslateX(0);
+        setTranslateY(0);
+        if (azimuth != BlockSprites.DEFAULT_AZIMUTH) {
+            azimuth = BlockSprites.DEFAULT_AZIMUTH;
+            if (squareSize == this.squareSize) {
+                setAzimuth(azimuth);
+            }
+        }
+        if (squareSize != this.squareSize) {
+            setSquareSize(squareSize);
+        }
+    }
+
+    /**
+     * Sets the angle of the rotation around the center of the matrix.
+     *
+     * @param angle The angle in degrees.
+     */
+    void setAngle(double angle) {
+        rotate.setAngle(angle);
+    }
+
+    double getAngle() {
+        return rotate.getAngle();
+    }
+
+    double getAzimuth() {
+        return azimuth;
+    }
+
+    /**
+     * Sets the direction of the light, i.e. shows the blocks lit from another direction.
+     *
+     * @param azimuth The azimuth of the light.
+     */
+    public void setAzimuth(double azimuth) {
+        this.azimuth = azimuth;
+        for (ImageView block : blocks) {
+            block.setImage(BlockSprites.get(color, squareSize, azimuth));
+        }
+    }
+
+    /**
+     * Gets the color of a piece type.
+     *
+     * @param type The piece type or null for garbage blocks.
+     * @return The color.
+     */
+    static Color getColor(PieceType type) {
+        return type != null ? COLORS.get(type) : GARBAGE_COLOR;
+    }
+
+    @Override
+    public Tetromino clone() {
+        return new Tetromino(type, squareSize);
+    }
+
+    public Paint getFill() {
+        return color;
+    }
+
+    public PieceType getType() {
+        return type;
+    }
+}
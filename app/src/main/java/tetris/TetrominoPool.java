@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import tetris.engine.PieceType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Recycles the tetrominos of a board: The current tetromino and its ghost are taken from the pool, when a piece spawns, and are returned, when it locks.
+ * Once each piece type has been spawned, no nodes are created anymore.
+ *
+ * @author Christian Schudt
+ */
+final class TetrominoPool {
+
+    private final List<Deque<Tetromino>> pool = new ArrayList<>();
+
+    private int created;
+
+    TetrominoPool() {
+        for (int i = 0; i < PieceType.values().length; i++) {
+            pool.add(new ArrayDeque<Tetromino>());
+        }
+    }
+
+    /**
+     * Takes a tetromino from the pool or creates a new one, if there's none.
+     *
+     * @param type       The piece type.
+     * @param squareSize The width and height of a block.
+     * @return The tetromino, which is unrotated and opaque.
+     */
+    Tetromino acquire(PieceType type, double squareSize) {
+        Tetromino tetromino = pool.get(type.ordinal()).poll();
+        if (tetromino == null) {
+            created++;
+            return new Tetromino(type, squareSize);
+        }
+        tetromino.reset(squareSize);
+        return tetromino;
+    }
+
+    /**
+     * Returns a tetromino to the pool. It must already be removed from the scene graph.
+     *
+     * @param tetromino The tetromino.
+     */
+    void release(Tetromino tetromino) {
+        pool.get(tetromino.getType().ordinal()).push(tetromino);
+    }
+
+    /**
+     * Gets the number of tetrominos, which have been created.
+     *
+     * @return The number of tetrominos.
+     */
+    int getCreated() {
+        return created;
+    }
+}
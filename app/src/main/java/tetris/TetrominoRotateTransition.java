@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.animation.Transition;
+import javafx.util.Duration;
+
+/**
+ * Rotates a {@link Tetromino} around the center of its matrix. A {@link javafx.animation.RotateTransition} would rotate it around the center of its blocks.
+ *
+ * @author Christian Schudt
+ */
+final class TetrominoRotateTransition extends Transition {
+
+    private Tetromino node;
+
+    private double fromAngle;
+
+    private double toAngle;
+
+    /**
+     * @param duration The duration of a rotation.
+     */
+    TetrominoRotateTransition(Duration duration) {
+        setCycleDuration(duration);
+    }
+
+    void setNode(Tetromino node) {
+        this.node = node;
+    }
+
+    void setFromAngle(double fromAngle) {
+        this.fromAngle = fromAngle;
+    }
+
+    void setToAngle(double toAngle) {
+        this.toAngle = toAngle;
+    }
+
+    double getToAngle() {
+        return toAngle;
+    }
+
+    @Override
+    protected void interpolate(double frac) {
+        if (node != null) {
+            node.setAngle(fromAngle + (toAngle - fromAngle) * frac);
+        }
+    }
+}
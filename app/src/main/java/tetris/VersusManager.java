@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.application.Platform;
+import tetris.engine.versus.VersusProtocol;
+import tetris.engine.versus.VersusSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays versus matches against other players over a {@link tetris.engine.versus.VersusServer}.
+ * <p/>
+ * Starting a game joins the next match and the board is started with the seed of the match, so that all players get the same pieces.
+ * The messages of the server are processed on the JavaFX application thread. The opponents' boards are not shown, only their garbage.
+ * <p/>
+ * Versus mode is enabled by the system property "tetris.versus" (host:port of the server) and the system property "tetris.versus.players" sets the number of players of a match (2 by default).
+ * <p/>
+ * The server is connected by the "Versus Connector" thread, so that the JavaFX application thread doesn't block. A match, which is joined in the meantime, is joined once the connection is established.
+ * If the connection fails, it's shown by the {@link NotificationOverlay} and the game is played alone.
+ *
+ * @author Christian Schudt
+ */
+final class VersusManager {
+
+    private static final Logger logger = Logger.getLogger(VersusManager.class.getName());
+
+    private final GameController gameController;
+
+    private final int players = Integer.getInteger("tetris.versus.players", 2);
+
+    // The following fields are only accessed by the JavaFX application thread.
+
+    /**
+     * The session or null, while the server is being connected or if the connection failed.
+     */
+    private VersusSession session;
+
+    /**
+     * If the connection failed.
+     */
+    private boolean failed;
+
+    /**
+     * If a match has been joined, before the connection was established.
+     */
+    private boolean joining;
+
+    /**
+     * If the end of the current match has been handled.
+     */
+    private boolean ended = true;
+
+    public VersusManager(final GameController gameController) {
+        this.gameController = gameController;
+        final Board board = gameController.getBoard();
+        final String server = System.getProperty("tetris.versus");
+        final LongSupplier frames = new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return board.getTicks();
+            }
+        };
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                Platform.runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        command.run();
+                        checkEnd();
+                    }
+                });
+            }
+        };
+        final LongConsumer starter = new LongConsumer() {
+            @Override
+            public void accept(long seed) {
+                ended = false;
+                gameController.start(seed);
+                logger.info("Match of " + session.getPlayers() + " players started as player " + session.getIndex() + ".");
+            }
+        };
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Resolving the host may block, too.
+                    final VersusSession connected = new VersusSession(board.getGame(), frames, getAddress(server), executor, starter);
+                    Platform.runLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            onConnected(connected);
+                        }
+                    });
+                } catch (final IOException e) {
+                    Platform.runLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            onConnectionFailed(server, e);
+                        }
+                    });
+                }
+            }
+        }, "Versus Connector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Checks, if versus mode is enabled by the system property "tetris.versus".
+     *
+     * @return True, if versus mode is enabled.
+     */
+    public static boolean isEnabled() {
+        return System.getProperty("tetris.versus") != null;
+    }
+
+    private static InetSocketAddress getAddress(String server) throws UnknownHostException {
+        int colon = server.lastIndexOf(':');
+        InetSocketAddress address = colon < 0 ? new InetSocketAddress(server, 7777) : new InetSocketAddress(server.substring(0, colon), Integer.parseInt(server.substring(colon + 1)));
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(address.getHostString());
+        }
+        return address;
+    }
+
+    /**
+     * Joins the next match. If the server is still being connected, the match is joined afterwards.
+     *
+     * @return False, if the connection to the server failed, i.e. the game can't be played in versus mode.
+     */
+    public boolean join() {
+        if (failed) {
+            return false;
+        }
+        if (session == null) {
+            joining = true;
+        } else {
+            session.join(players);
+        }
+        return true;
+    }
+
+    private void onConnected(VersusSession session) {
+        this.session = session;
+        gameController.getBoard().getGame().addGameListener(session);
+        if (joining) {
+            joining = false;
+            session.join(players);
+        }
+    }
+
+    private void onConnectionFailed(String server, IOException e) {
+        logger.log(Level.WARNING, "Could not connect to the versus server " + server, e);
+        failed = true;
+        gameController.getNotificationOverlay().showMessage("Versus server not reachable");
+        if (joining) {
+            // Play alone instead.
+            joining = false;
+            gameController.start();
+        }
+    }
+
+    /**
+     * Pauses the game of the winner, after the match has ended.
+     */
+    private void checkEnd() {
+        if (session == null) {
+            return;
+        }
+        int winner = session.getWinner();
+        if (ended || winner < 0) {
+            return;
+        }
+        ended = true;
+        if (winner == VersusProtocol.NO_PLAYER) {
+            logger.info("The match ended in a draw.");
+        } else if (winner == session.getIndex()) {
+            logger.info("You won the match.");
+            gameController.pausedProperty().set(true);
+        } else {
+            logger.info("Player " + winner + " won the match.");
+        }
+    }
+
+    /**
+     * Creates the versus manager, if versus mode is enabled. It connects to the server in the background.
+     *
+     * @param gameController The game controller.
+     * @return The versus manager or null, if versus mode is disabled.
+     */
+    static VersusManager create(GameController gameController) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return new VersusManager(gameController);
+    }
+}
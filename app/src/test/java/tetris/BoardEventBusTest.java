@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.geometry.HorizontalDirection;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Christian Schudt
+ */
+public class BoardEventBusTest {
+
+    private static final int EVENTS = 5000;
+
+    @BeforeClass
+    public void startPlatform() throws Exception {
+        JavaFx.startup();
+    }
+
+    @Test
+    public void testSlowBackgroundListenerDoesNotDropUserInterfaceEvents() throws Exception {
+        final BoardEventBus bus = new BoardEventBus();
+        final RecordingListener userInterface = new RecordingListener(null);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingListener background = new RecordingListener(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                bus.subscribe(userInterface, false);
+                bus.subscribe(background, true);
+                bus.publish(BoardEventBus.ROWS_ELIMINATED, 0);
+                return null;
+            }
+        });
+        // The background listener is stuck in the first event.
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // Several buffers of events in a single call, i.e. without a pulse in between.
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (int i = 1; i < EVENTS; i++) {
+                    bus.publish(BoardEventBus.ROWS_ELIMINATED, i);
+                }
+                return null;
+            }
+        });
+        release.countDown();
+        waitFor(userInterface, EVENTS, bus);
+        waitFor(background, EVENTS, bus);
+
+        // The listener of the user interface receives all events in order.
+        Assert.assertEquals(userInterface.events.size(), EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            Assert.assertEquals((int) userInterface.events.get(i), i);
+        }
+        // The background listener has missed some, but the ones it received are in order and none twice.
+        Assert.assertTrue(bus.getDroppedEvents() > 0);
+        Assert.assertEquals(background.events.size() + bus.getDroppedEvents(), EVENTS);
+        for (int i = 1; i < background.events.size(); i++) {
+            Assert.assertTrue(background.events.get(i) > background.events.get(i - 1));
+        }
+        Assert.assertEquals((int) background.events.get(background.events.size() - 1), EVENTS - 1);
+    }
+
+    @Test
+    public void testEventsCausedByListener() throws Exception {
+        final BoardEventBus bus = new BoardEventBus();
+        final RecordingListener userInterface = new RecordingListener(null);
+        // A listener, which causes another event, like a bot, which restarts the game after game over.
+        final Board.BoardListener restarter = new RecordingListener(null) {
+            @Override
+            public void onRowsEliminated(int rows) {
+                if (rows == 0) {
+                    bus.publish(BoardEventBus.ROWS_ELIMINATED, 1);
+                }
+            }
+        };
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                bus.subscribe(restarter, false);
+                bus.subscribe(userInterface, false);
+                bus.publish(BoardEventBus.ROWS_ELIMINATED, 0);
+                return null;
+            }
+        });
+        waitFor(userInterface, 2, bus);
+        Assert.assertEquals(userInterface.events.toString(), "[0, 1]");
+    }
+
+    private static void waitFor(RecordingListener listener, int events, BoardEventBus bus) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listener.events.size() + listener.droppedEvents(bus) < events) {
+            Assert.assertTrue(System.nanoTime() < deadline, "Timeout");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records the arguments of the events.
+     */
+    private static class RecordingListener implements Board.BoardListener {
+
+        private final List<Integer> events = new CopyOnWriteArrayList<>();
+
+        private final Runnable onFirstEvent;
+
+        private RecordingListener(Runnable onFirstEvent) {
+            this.onFirstEvent = onFirstEvent;
+        }
+
+        private long droppedEvents(BoardEventBus bus) {
+            // Only the background listener of a test drops events.
+            return onFirstEvent != null ? bus.getDroppedEvents() : 0;
+        }
+
+        @Override
+        public void onDropped() {
+        }
+
+        @Override
+        public void onRowsEliminated(int rows) {
+            events.add(rows);
+            if (rows == 0 && onFirstEvent != null) {
+                onFirstEvent.run();
+            }
+        }
+
+        @Override
+        public void onGameOver() {
+        }
+
+        @Override
+        public void onCleared() {
+        }
+
+        @Override
+        public void onInvalidMove() {
+        }
+
+        @Override
+        public void onMove(HorizontalDirection horizontalDirection) {
+        }
+
+        @Override
+        public void onRotate(HorizontalDirection horizontalDirection) {
+        }
+    }
+}
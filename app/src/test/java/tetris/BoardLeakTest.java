@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.beans.property.DoublePropertyBase;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.Playfield;
+import tetris.engine.simulation.GreedyPolicy;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Plays 10,000 pieces on a board, which is resized from time to time, and checks, that neither the listeners of the square size, nor the nodes, nor the heap grow.
+ *
+ * @author Christian Schudt
+ */
+public class BoardLeakTest {
+
+    private static final int PIECES = 10000;
+
+    private static final int PIECES_PER_PULSE = 50;
+
+    private static final int CHECKPOINT = 2000;
+
+    private static final double SQUARE_SIZE = 25;
+
+    /**
+     * The maximal number of nodes of the board: a block per cell of the playfield, the current and the ghost piece and some containers.
+     */
+    private static final int MAX_NODES = Playfield.ROWS * Playfield.COLUMNS + 50;
+
+    /**
+     * The allowed growth of the heap between the checkpoint and the end.
+     */
+    private static final long MAX_HEAP_GROWTH = 4 << 20;
+
+    private GameController gameController;
+
+    private Stage stage;
+
+    @BeforeClass
+    public void startPlatform() throws Exception {
+        JavaFx.startup();
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                gameController = new GameController(SQUARE_SIZE);
+                gameController.getSoundManager().muteProperty().set(true);
+                StackPane root = new StackPane(gameController.getBoard());
+                root.setId("tetris");
+                Scene scene = new Scene(root, 300, 600);
+                scene.getStylesheets().add("tetris/styles.css");
+                stage = new Stage();
+                stage.setScene(scene);
+                stage.show();
+                gameController.start();
+                // The pieces are placed by the test, not by the clock.
+                gameController.getBoard().pause();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testSoak() throws Exception {
+        final Board board = gameController.getBoard();
+        final Game game = board.getGame();
+        final GreedyPolicy policy = new GreedyPolicy();
+        int listeners = 0;
+        long heap = 0;
+        final Set<Double> squareSizes = new HashSet<>();
+        for (int pieces = 0; pieces < PIECES; pieces += PIECES_PER_PULSE) {
+            final int size = pieces / 1000;
+            // Each batch runs in its own pulse, so that the animations and the layout run in between.
+            JavaFx.run(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    squareSizes.add(board.getSquareSize());
+                    for (int i = 0; i < PIECES_PER_PULSE; i++) {
+                        if (game.getCurrentPiece() == null) {
+                            game.spawn();
+                        }
+                        policy.play(game);
+                        game.dropDown();
+                        game.lock();
+                        if (game.isGameOver()) {
+                            board.start();
+                            board.pause();
+                        }
+                    }
+                    // Resize the board every 1000 pieces, so that all blocks are laid out again.
+                    double squareSize = size % 2 == 0 ? SQUARE_SIZE : SQUARE_SIZE * 0.8;
+                    board.setMinWidth(squareSize * Playfield.COLUMNS);
+                    board.setMinHeight(squareSize * Playfield.VISIBLE_ROWS);
+                    return null;
+                }
+            });
+            if ((pieces + PIECES_PER_PULSE) % 1000 == 0) {
+                // The nodes depend on the blocks on the playfield, but they must not grow with the number of pieces.
+                Assert.assertTrue(countNodes(board) <= MAX_NODES, "Nodes of the board");
+            }
+            if (pieces + PIECES_PER_PULSE == CHECKPOINT) {
+                listeners = countListeners(board);
+                heap = usedHeap();
+            }
+        }
+        Assert.assertTrue(squareSizes.contains(SQUARE_SIZE) && squareSizes.contains(SQUARE_SIZE * 0.8), "The board has been resized.");
+        Assert.assertEquals(countListeners(board), listeners, "Listeners of the square size");
+        long growth = usedHeap() - heap;
+        Assert.assertTrue(growth < MAX_HEAP_GROWTH, "The heap has grown by " + growth / 1024 + " KB.");
+    }
+
+    private int countListeners(final Board board) throws Exception {
+        return JavaFx.run(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                Field helperField = DoublePropertyBase.class.getDeclaredField("helper");
+                helperField.setAccessible(true);
+                Object helper = helperField.get(board.squareSizeProperty());
+                if (helper == null) {
+                    return 0;
+                }
+                int count = 0;
+                for (String name : new String[]{"changeSize", "invalidationSize"}) {
+                    try {
+                        Field field = helper.getClass().getDeclaredField(name);
+                        field.setAccessible(true);
+                        count += (Integer) field.get(helper);
+                    } catch (NoSuchFieldException e) {
+                        // A helper with a single listener.
+                        return 1;
+                    }
+                }
+                return count;
+            }
+        });
+    }
+
+    private int countNodes(final Board board) throws Exception {
+        return JavaFx.run(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return countNodes((Parent) board);
+            }
+        });
+    }
+
+    private static int countNodes(Parent parent) {
+        int count = 1;
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            count += child instanceof Parent ? countNodes((Parent) child) : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Measures the used heap after a full garbage collection. It takes the minimum of several pulses, because rendering may temporarily hold large buffers.
+     */
+    private static long usedHeap() throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            JavaFx.run(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    return null;
+                }
+            });
+            Thread.sleep(50);
+            System.gc();
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs code of the tests on the JavaFX application thread.
+ *
+ * @author Christian Schudt
+ */
+final class JavaFx {
+
+    private static final CountDownLatch started = new CountDownLatch(1);
+
+    private JavaFx() {
+    }
+
+    /**
+     * Starts the JavaFX platform, if it isn't started yet.
+     */
+    static synchronized void startup() throws InterruptedException {
+        if (started.getCount() > 0) {
+            Platform.startup(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                }
+            });
+            // Keep the platform running between the tests.
+            Platform.setImplicitExit(false);
+        }
+        if (!started.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The JavaFX platform didn't start.");
+        }
+    }
+
+    /**
+     * Runs code on the JavaFX application thread and waits for its result.
+     *
+     * @param callable The code.
+     * @param <T>      The type of the result.
+     * @return The result.
+     */
+    static <T> T run(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        return task.get(30, TimeUnit.SECONDS);
+    }
+}
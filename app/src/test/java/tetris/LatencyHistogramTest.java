@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author Christian Schudt
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * The maximal relative error of a percentile.
+     */
+    private static final double ERROR = 1.0 / 128;
+
+    private static final double[] PERCENTILES = {0, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99, 100};
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram("small");
+        for (int i = 1; i <= 256; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 128);
+        Assert.assertEquals(histogram.getValueAtPercentile(127 / 2.56), 127);
+        Assert.assertEquals(histogram.getValueAtPercentile(255 / 2.56), 255);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 256);
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        // The values around the powers of two, where the sub buckets become twice as wide.
+        for (int bits = 7; bits < 63; bits++) {
+            long power = 1L << bits;
+            for (long value : new long[]{power - 1, power, power + 1, power + (power >> 1), (power << 1) - 1}) {
+                LatencyHistogram histogram = new LatencyHistogram("boundary");
+                histogram.record(value);
+                // A second, higher value, so that the percentile isn't capped at the maximum.
+                histogram.record(Long.MAX_VALUE);
+                assertWithinError(histogram.getValueAtPercentile(50), value);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Random random = new Random(17);
+        long[] values = new long[100000];
+        LatencyHistogram histogram = new LatencyHistogram("random");
+        for (int i = 0; i < values.length; i++) {
+            // Spread the values over many orders of magnitude, from nanoseconds to hours.
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e13));
+            histogram.record(values[i]);
+        }
+        histogram.record(-1);
+        Arrays.sort(values);
+        Assert.assertEquals(histogram.getCount(), values.length);
+        Assert.assertEquals(histogram.getMax(), values[values.length - 1]);
+        for (double percentile : PERCENTILES) {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * values.length));
+            assertWithinError(histogram.getValueAtPercentile(percentile), values[(int) rank - 1]);
+        }
+        Assert.assertEquals(histogram.getValueAtPercentile(100), values[values.length - 1]);
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram("reset");
+        histogram.record(1000000);
+        histogram.reset();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMax(), 0);
+        Assert.assertEquals(histogram.getMean(), 0.0);
+        histogram.record(5);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 5);
+    }
+
+    @Test
+    public void testWrite() {
+        LatencyHistogram histogram = new LatencyHistogram("write");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000000L);
+        }
+        StringWriter out = new StringWriter();
+        histogram.write(new PrintWriter(out));
+        String[] lines = out.toString().split("\n");
+        Assert.assertEquals(lines[0], "# write");
+        // The last line of the distribution has all values.
+        Assert.assertTrue(out.toString().contains("1.000000000000       1000"), out.toString());
+        Assert.assertTrue(out.toString().contains("#[Total count    =         1000]"));
+    }
+
+    /**
+     * Checks, that a value of the histogram is the same or at most by the relative error higher than the exact value.
+     */
+    private static void assertWithinError(long actual, long expected) {
+        Assert.assertTrue(actual >= expected, actual + " < " + expected);
+        Assert.assertTrue(actual - expected <= expected * ERROR, actual + " is not within the error of " + expected);
+    }
+}
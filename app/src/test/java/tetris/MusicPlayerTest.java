@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * @author Christian Schudt
+ */
+public class MusicPlayerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @DataProvider
+    public Object[][] paces() {
+        return new Object[][]{
+                {0.5, 1.0},
+                {1.0, 1.0},
+                {1.3, 1.05},
+                {1.6, 1.1},
+                {1.9, 1.15},
+                {2.2, 1.2},
+                {2.5, 1.25},
+                {5.0, 1.25}};
+    }
+
+    @Test(dataProvider = "paces")
+    public void testTempoMapping(double piecesPerSecond, double rate) {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+        drop(tempo, SECOND, piecesPerSecond, 10);
+        Assert.assertEquals(musicPlayer.getRate(), rate, DELTA);
+    }
+
+    @Test
+    public void testRateSteps() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        double previousRate = 1;
+        for (int i = 100; i <= 250; i++) {
+            MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+            drop(tempo, SECOND, i / 100.0, 3);
+            double rate = musicPlayer.getRate();
+            double steps = rate / 0.05;
+            Assert.assertEquals(steps, Math.rint(steps), DELTA, "Rate at " + i / 100.0 + " pieces/s: " + rate);
+            Assert.assertTrue(rate >= previousRate, "Rate at " + i / 100.0 + " pieces/s: " + rate);
+            previousRate = rate;
+        }
+        Assert.assertEquals(previousRate, MusicPlayer.MAX_RATE, DELTA);
+    }
+
+    @Test
+    public void testResetOnGameOver() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+        long now = drop(tempo, SECOND, 2.5, 10);
+        Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+        tempo.resetTempo();
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+
+        // The first piece of the next game doesn't measure the time of the game over screen.
+        now += 30 * SECOND;
+        tempo.onDropped(now);
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+        // The pace of the last game is forgotten, otherwise the average would still be 1.9 pieces per second.
+        tempo.onDropped(now + SECOND);
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+    }
+
+    @Test
+    public void testGiveUpAfterFailedPlaylist() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getMessage().startsWith("Could not play")) {
+                    attempts.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(MusicPlayer.class.getName());
+        logger.addHandler(handler);
+        try {
+            MusicPlayer musicPlayer = new MusicPlayer(Arrays.asList("file:/missing/tetris1.mp3", "file:/missing/tetris2.mp3"));
+            musicPlayer.setPlaying(true);
+            musicPlayer.awaitUpdates();
+            // Each track has been tried once.
+            Assert.assertEquals(attempts.get(), 2);
+
+            // Neither playing again, nor the volume, nor the tempo retry the tracks.
+            musicPlayer.setPlaying(false);
+            musicPlayer.setPlaying(true);
+            musicPlayer.setVolume(0.5);
+            drop(musicPlayer.createTempo(), SECOND, 2.5, 3);
+            musicPlayer.awaitUpdates();
+            Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+            Assert.assertEquals(attempts.get(), 2);
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void testTempo() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+        tempo.onDropped();
+        tempo.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+        tempo.resetTempo();
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+
+        // The drop of the eliminated rows doesn't count as piece.
+        tempo.onDropped();
+        tempo.onRowsEliminated();
+        tempo.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+        tempo.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+    }
+
+    @Test
+    public void testClearedDuringElimination() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+        tempo.onRowsEliminated();
+        // The board is cleared, before the rows dropped. The pieces of the next game count again.
+        tempo.onCleared();
+        tempo.onDropped();
+        tempo.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+    }
+
+    @Test
+    public void testGameOverDuringElimination() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo = musicPlayer.createTempo();
+        tempo.onRowsEliminated();
+        tempo.resetTempo();
+        // The rows still drop after the game is over.
+        tempo.onDropped();
+        tempo.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+    }
+
+    @Test
+    public void testBoards() {
+        MusicPlayer musicPlayer = new MusicPlayer(Collections.singletonList("file:/tetris.mp3"));
+        MusicPlayer.Tempo tempo1 = musicPlayer.createTempo();
+        MusicPlayer.Tempo tempo2 = musicPlayer.createTempo();
+        // Each board measures its own pace, the drops of two boards don't make a fast pace.
+        tempo1.onDropped();
+        tempo2.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), 1, DELTA);
+        tempo2.onDropped();
+        Assert.assertEquals(musicPlayer.getRate(), MusicPlayer.MAX_RATE, DELTA);
+    }
+
+    /**
+     * Drops pieces at a constant pace.
+     *
+     * @return The time of the last drop.
+     */
+    private static long drop(MusicPlayer.Tempo tempo, long start, double piecesPerSecond, int pieces) {
+        long now = start;
+        for (int i = 0; i < pieces; i++) {
+            now = start + Math.round(i * SECOND / piecesPerSecond);
+            tempo.onDropped(now);
+        }
+        return now;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.layout.StackPane;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.PieceType;
+import tetris.engine.simulation.GreedyPolicy;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Checks, that the preview shows the waiting pieces of the game and reuses its nodes on each spawn.
+ *
+ * @author Christian Schudt
+ */
+public class PreviewTest {
+
+    private static final int PIECES = 1000;
+
+    private GameController gameController;
+
+    private Preview preview;
+
+    @BeforeClass
+    public void startPlatform() throws Exception {
+        JavaFx.startup();
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                gameController = new GameController(25);
+                gameController.getSoundManager().muteProperty().set(true);
+                preview = new Preview(gameController);
+                gameController.start();
+                // The pieces are placed by the test, not by the clock.
+                gameController.getBoard().pause();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        Assert.assertEquals(Board.PREVIEWS, Board.MAX_PREVIEWS, "The tests run with the longest preview.");
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                Board board = gameController.getBoard();
+                Game game = board.getGame();
+                GreedyPolicy policy = new GreedyPolicy();
+                Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+                // The most slots, which each piece type has occupied at once.
+                int[] maxSlots = new int[PieceType.values().length];
+                for (int piece = 0; piece < PIECES; piece++) {
+                    if (game.getCurrentPiece() == null) {
+                        game.spawn();
+                    }
+                    int[] slots = new int[maxSlots.length];
+                    List<Node> children = preview.getChildren();
+                    Assert.assertEquals(children.size(), Board.PREVIEWS);
+                    for (int i = 0; i < children.size(); i++) {
+                        List<Node> slot = ((StackPane) children.get(i)).getChildren();
+                        Assert.assertEquals(slot.size(), 1);
+                        Node node = slot.get(0);
+                        PieceType type = ((Tetromino) ((Group) node).getChildren().get(0)).getType();
+                        Assert.assertEquals(type, game.getWaitingPiece(i), "Slot " + i + " of piece " + piece);
+                        nodes.add(node);
+                        slots[type.ordinal()]++;
+                    }
+                    int total = 0;
+                    for (int i = 0; i < maxSlots.length; i++) {
+                        maxSlots[i] = Math.max(maxSlots[i], slots[i]);
+                        total += maxSlots[i];
+                    }
+                    // A node is only created, when a piece type occupies more slots at once than before.
+                    Assert.assertEquals(nodes.size(), total, "Nodes after piece " + piece);
+
+                    policy.play(game);
+                    game.dropDown();
+                    game.lock();
+                    if (game.isGameOver()) {
+                        board.start();
+                        board.pause();
+                    }
+                }
+                Assert.assertTrue(nodes.size() <= PieceType.values().length * Board.PREVIEWS);
+                return null;
+            }
+        });
+    }
+}
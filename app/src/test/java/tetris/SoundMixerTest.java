@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks the voice limits and the coalescing of the mixer with a manual clock and without its thread.
+ *
+ * @author Christian Schudt
+ */
+public class SoundMixerTest {
+
+    private final List<String> voices = new ArrayList<>();
+
+    private final List<Double> volumes = new ArrayList<>();
+
+    private boolean loaded;
+
+    private long now;
+
+    private final SoundMixer.ClipPlayer player = new SoundMixer.ClipPlayer() {
+        @Override
+        public boolean play(String resource, double volume) {
+            if (!loaded) {
+                return false;
+            }
+            voices.add(resource);
+            volumes.add(volume);
+            return true;
+        }
+    };
+
+    private final LongSupplier clock = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now;
+        }
+    };
+
+    @BeforeMethod
+    public void reset() {
+        voices.clear();
+        volumes.clear();
+        loaded = true;
+        now = 1000000000L;
+    }
+
+    @Test
+    public void testVoicesPerChannel() {
+        SoundMixer mixer = new SoundMixer(1, player, clock);
+        mixer.configure(0, "drop", 2, 1000, 0);
+        for (int i = 0; i < 3; i++) {
+            mixer.play(0, 1);
+            Assert.assertTrue(mixer.mixTick());
+            advance(10);
+        }
+        // The third voice is rejected, while the first two still play.
+        Assert.assertEquals(voices.size(), 2);
+        Assert.assertEquals(mixer.getRejected(), 1);
+
+        // The first voice is over after 1000 ms.
+        advance(980);
+        mixer.play(0, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), 3);
+        Assert.assertEquals(mixer.getPlayed(), 3);
+    }
+
+    @Test
+    public void testRetriggerInterval() {
+        SoundMixer mixer = new SoundMixer(1, player, clock);
+        mixer.configure(0, "move", 3, 50, 100);
+        mixer.play(0, 1);
+        mixer.mixTick();
+        advance(99);
+        mixer.play(0, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), 1);
+        Assert.assertEquals(mixer.getRejected(), 1);
+        advance(1);
+        mixer.play(0, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), 2);
+    }
+
+    @Test
+    public void testCoalescing() {
+        SoundMixer mixer = new SoundMixer(2, player, clock);
+        mixer.configure(0, "drop", 3, 100, 0);
+        mixer.configure(1, "rotate", 3, 100, 0);
+        // The requests of the same tick become one voice per channel with the loudest volume.
+        mixer.play(0, 0.3);
+        mixer.play(0, 0.9);
+        mixer.play(0, 0.5);
+        mixer.play(1, 0.2);
+        // Muted requests are ignored.
+        mixer.play(1, 0);
+        Assert.assertTrue(mixer.mixTick());
+        Assert.assertEquals(voices, Arrays.asList("drop", "rotate"));
+        Assert.assertEquals(volumes, Arrays.asList(0.9, 0.2));
+        Assert.assertEquals(mixer.getCoalesced(), 2);
+        Assert.assertEquals(mixer.getRejected(), 0);
+        // Nothing is pending anymore.
+        Assert.assertFalse(mixer.mixTick());
+    }
+
+    @Test
+    public void testMaxVoices() {
+        int channels = SoundMixer.MAX_VOICES + 2;
+        SoundMixer mixer = new SoundMixer(channels, player, clock);
+        for (int i = 0; i < channels; i++) {
+            mixer.configure(i, "sound" + i, 1, 500, 0);
+            mixer.play(i, 1);
+        }
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), SoundMixer.MAX_VOICES);
+        Assert.assertEquals(mixer.getRejected(), 2);
+
+        // While all voices play, no channel gets another one.
+        advance(100);
+        mixer.play(channels - 1, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), SoundMixer.MAX_VOICES);
+
+        advance(400);
+        mixer.play(channels - 1, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices.size(), SoundMixer.MAX_VOICES + 1);
+    }
+
+    @Test
+    public void testNotLoaded() {
+        SoundMixer mixer = new SoundMixer(1, player, clock);
+        mixer.configure(0, "vanish", 1, 1000, 0);
+        loaded = false;
+        mixer.play(0, 1);
+        mixer.mixTick();
+        Assert.assertEquals(mixer.getRejected(), 1);
+        // A skipped sound doesn't occupy a voice.
+        loaded = true;
+        advance(10);
+        mixer.play(0, 1);
+        mixer.mixTick();
+        Assert.assertEquals(voices, Arrays.asList("vanish"));
+    }
+
+    @Test
+    public void testThread() throws InterruptedException {
+        final BlockingQueue<String> played = new LinkedBlockingQueue<>();
+        SoundMixer mixer = new SoundMixer(1, new SoundMixer.ClipPlayer() {
+            @Override
+            public boolean play(String resource, double volume) {
+                played.add(resource);
+                return true;
+            }
+        }, clock);
+        mixer.configure(0, "drop", 1, 0, 0);
+        mixer.start();
+        for (int i = 0; i < 3; i++) {
+            // The sleeping thread is woken up by the request.
+            mixer.play(0, 1);
+            Assert.assertEquals(played.poll(5, TimeUnit.SECONDS), "drop");
+            Thread.sleep(50);
+        }
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.PieceType;
+import tetris.engine.simulation.GreedyPolicy;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Checks, that the tetromino pool of a board stops creating nodes and that reused tetrominos are reset.
+ *
+ * @author Christian Schudt
+ */
+public class TetrominoPoolTest {
+
+    private static final double SQUARE_SIZE = 25;
+
+    private static final int WARM_UP = 200;
+
+    private static final int PIECES = 2000;
+
+    private static final int PIECES_PER_PULSE = 50;
+
+    private GameController gameController;
+
+    @BeforeClass
+    public void startPlatform() throws Exception {
+        JavaFx.startup();
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                gameController = new GameController(SQUARE_SIZE);
+                gameController.getSoundManager().muteProperty().set(true);
+                StackPane root = new StackPane(gameController.getBoard());
+                root.setId("tetris");
+                Scene scene = new Scene(root, 300, 600);
+                scene.getStylesheets().add("tetris/styles.css");
+                Stage stage = new Stage();
+                stage.setScene(scene);
+                stage.show();
+                gameController.start();
+                // The pieces are placed by the test, not by the clock.
+                gameController.getBoard().pause();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testSteadyState() throws Exception {
+        Board board = gameController.getBoard();
+        play(board, WARM_UP);
+        int created = board.getTetrominoPool().getCreated();
+        // At most the current tetromino and its ghost per piece type.
+        Assert.assertTrue(created <= 2 * PieceType.values().length, "Created tetrominos: " + created);
+        play(board, PIECES);
+        Assert.assertEquals(board.getTetrominoPool().getCreated(), created);
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                TetrominoPool pool = new TetrominoPool();
+                Tetromino tetromino = pool.acquire(PieceType.T, 20);
+                tetromino.setAngle(90);
+                tetromino.setOpacity(0.3);
+                tetromino.setTranslateX(40);
+                tetromino.setTranslateY(60);
+                tetromino.setAzimuth(123);
+                pool.release(tetromino);
+
+                Tetromino reused = pool.acquire(PieceType.T, 30);
+                Assert.assertSame(reused, tetromino);
+                Assert.assertEquals(reused.getAngle(), 0.0);
+                Assert.assertEquals(reused.getOpacity(), 1.0);
+                Assert.assertEquals(reused.getTranslateX(), 0.0);
+                Assert.assertEquals(reused.getTranslateY(), 0.0);
+                Assert.assertEquals(reused.getAzimuth(), BlockSprites.DEFAULT_AZIMUTH);
+                Assert.assertEquals(reused.getSquareSize(), 30.0);
+                Assert.assertEquals(pool.getCreated(), 1);
+
+                // The pool is empty now and other types don't share the tetromino.
+                Assert.assertNotSame(pool.acquire(PieceType.T, 30), tetromino);
+                pool.acquire(PieceType.I, 30);
+                Assert.assertEquals(pool.getCreated(), 3);
+                return null;
+            }
+        });
+    }
+
+    private static void play(final Board board, int pieces) throws Exception {
+        final Game game = board.getGame();
+        final GreedyPolicy policy = new GreedyPolicy();
+        for (int i = 0; i < pieces; i += PIECES_PER_PULSE) {
+            // Each batch runs in its own pulse, so that the transitions run in between.
+            JavaFx.run(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int j = 0; j < PIECES_PER_PULSE; j++) {
+                        if (game.getCurrentPiece() == null) {
+                            game.spawn();
+                        }
+                        policy.play(game);
+                        game.dropDown();
+                        game.lock();
+                        if (game.isGameOver()) {
+                            board.start();
+                            board.pause();
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+}
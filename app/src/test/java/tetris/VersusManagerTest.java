@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris;
+
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import tetris.engine.versus.VersusServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.Callable;
+
+/**
+ * Checks, that the versus server is connected in the background and that a failed connection is shown.
+ *
+ * @author Christian Schudt
+ */
+public class VersusManagerTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @BeforeClass
+    public void startPlatform() throws Exception {
+        JavaFx.startup();
+    }
+
+    @Test
+    public void testMatch() throws Exception {
+        VersusServer server = new VersusServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = new Thread(server, "Versus Server");
+        serverThread.start();
+        try {
+            final GameController a = createGameController("127.0.0.1:" + server.getPort());
+            final GameController b = createGameController("127.0.0.1:" + server.getPort());
+            // The match is joined, before the connections have been established.
+            JavaFx.run(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    a.start();
+                    b.start();
+                    return null;
+                }
+            });
+            await(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return a.getBoard().getGame().getCurrentPiece() != null && b.getBoard().getGame().getCurrentPiece() != null;
+                }
+            });
+            JavaFx.run(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Assert.assertEquals(a.getBoard().getGame().getSeed(), b.getBoard().getGame().getSeed());
+                    a.getBoard().pause();
+                    b.getBoard().pause();
+                    return null;
+                }
+            });
+            Assert.assertEquals(server.getMatches(), 1);
+        } finally {
+            server.close();
+            serverThread.join(5000);
+        }
+    }
+
+    @Test
+    public void testConnectionFailed() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        final GameController gameController = createGameController("127.0.0.1:" + port);
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                gameController.start();
+                return null;
+            }
+        });
+        // The failure is shown and the game is played alone.
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                for (Node node : gameController.getNotificationOverlay().getChildren()) {
+                    if (node instanceof Label && ((Label) node).getText().equals("Versus server not reachable")) {
+                        return gameController.getBoard().getGame().getCurrentPiece() != null;
+                    }
+                }
+                return false;
+            }
+        });
+        JavaFx.run(new Callable<Void>() {
+            @Override
+            public Void call() {
+                gameController.getBoard().pause();
+                // Starting again doesn't retry the connection.
+                gameController.start();
+                Assert.assertNotNull(gameController.getBoard().getGame().getCurrentPiece());
+                gameController.getBoard().pause();
+                return null;
+            }
+        });
+    }
+
+    private static GameController createGameController(final String server) throws Exception {
+        return JavaFx.run(new Callable<GameController>() {
+            @Override
+            public GameController call() {
+                System.setProperty("tetris.versus", server);
+                try {
+                    GameController gameController = new GameController(25);
+                    gameController.getSoundManager().muteProperty().set(true);
+                    return gameController;
+                } finally {
+                    System.clearProperty("tetris.versus");
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits, until a condition, which is checked on the JavaFX application thread, is true.
+     */
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!JavaFx.run(condition)) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, "Timeout");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.benchmarks;
+
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+
+import java.util.Random;
+
+/**
+ * Creates playfields with a representative amount of blocks.
+ *
+ * @author Christian Schudt
+ */
+final class Boards {
+
+    /**
+     * A single block, which is used to put arbitrary blocks into a playfield.
+     */
+    private static final PieceShape BLOCK = new PieceShape(new int[][]{{1}});
+
+    /**
+     * The probability of a cell to be occupied in a filled row.
+     */
+    private static final double DENSITY = 0.7;
+
+    private Boards() {
+    }
+
+    /**
+     * Fills the bottom rows of the playfield with random blocks. None of the rows is complete.
+     *
+     * @param playfield The playfield.
+     * @param fillLevel The percentage of the visible rows, which are filled.
+     * @param random    The random generator.
+     * @param well      The column, which is kept empty in every row or -1, if a random column should be kept empty per row.
+     */
+    static void fill(Playfield playfield, int fillLevel, Random random, int well) {
+        int height = Playfield.VISIBLE_ROWS * fillLevel / 100;
+        for (int row = Playfield.ROWS - 1; row >= Playfield.ROWS - height; row--) {
+            int hole = well >= 0 ? well : random.nextInt(Playfield.COLUMNS);
+            int mask = 0;
+            for (int column = 0; column < Playfield.COLUMNS; column++) {
+                if (column != hole && random.nextDouble() < DENSITY) {
+                    mask |= 1 << column;
+                }
+            }
+            fillRow(playfield, row, mask, random);
+        }
+    }
+
+    /**
+     * Puts blocks into a row.
+     *
+     * @param playfield The playfield.
+     * @param row       The row.
+     * @param mask      The cells to occupy, where bit j stands for column j.
+     * @param random    The random generator, which chooses the piece types.
+     */
+    static void fillRow(Playfield playfield, int row, int mask, Random random) {
+        PieceType[] types = PieceType.values();
+        for (int column = 0; column < Playfield.COLUMNS; column++) {
+            if ((mask & 1 << column) != 0) {
+                playfield.merge(types[random.nextInt(types.length)], BLOCK, column, row);
+            }
+        }
+    }
+}
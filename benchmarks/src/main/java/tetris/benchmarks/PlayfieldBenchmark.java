@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+import tetris.engine.simulation.PlacementSearch;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the playfield operations: collision checks, hard drops, line clears and the search of reachable placements.
+ *
+ * @author Christian Schudt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayfieldBenchmark {
+
+    /**
+     * The number of precomputed positions, which are cycled through.
+     */
+    private static final int POSITIONS = 1024;
+
+    /**
+     * The column of the I piece's matrix, which is occupied in its vertical orientation.
+     */
+    private static final int I_COLUMN = 2;
+
+    /**
+     * The percentage of the visible rows, which are filled with blocks.
+     */
+    @Param({"0", "25", "50", "75"})
+    public int fillLevel;
+
+    private final Playfield playfield = new Playfield();
+
+    /**
+     * A playfield, in which the four bottom rows are only missing their last column.
+     */
+    private final Playfield tetrisPlayfield = new Playfield();
+
+    private final PieceShape[] shapes = new PieceShape[POSITIONS];
+
+    private final int[] xs = new int[POSITIONS];
+
+    private final int[] ys = new int[POSITIONS];
+
+    /**
+     * The positions at the top of the playfield, which don't intersect.
+     */
+    private final int[] dropXs = new int[POSITIONS];
+
+    private final PieceShape[] dropShapes = new PieceShape[POSITIONS];
+
+    private final PieceType[] types = PieceType.values();
+
+    private final PlacementSearch placementSearch = new PlacementSearch();
+
+    private PieceShape verticalI;
+
+    private int tetrisY;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Boards.fill(playfield, fillLevel, random, -1);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            PieceType type = types[random.nextInt(types.length)];
+            shapes[i] = type.getShape(random.nextInt(PieceType.ROTATIONS));
+            xs[i] = random.nextInt(Playfield.COLUMNS + 2) - 2;
+            ys[i] = random.nextInt(Playfield.ROWS);
+            do {
+                dropShapes[i] = type.getShape(random.nextInt(PieceType.ROTATIONS));
+                dropXs[i] = random.nextInt(Playfield.COLUMNS + 2) - 2;
+            } while (playfield.intersects(dropShapes[i], dropXs[i], 0));
+        }
+
+        int well = Playfield.COLUMNS - 1;
+        for (int row = Playfield.ROWS - 4; row < Playfield.ROWS; row++) {
+            Boards.fillRow(tetrisPlayfield, row, Playfield.FULL_ROW & ~(1 << well), random);
+        }
+        // The rows above the four almost complete rows.
+        Playfield stack = new Playfield();
+        Boards.fill(stack, Math.max(fillLevel - 20, 0), random, well);
+        for (int row = 0; row < Playfield.ROWS - 4; row++) {
+            Boards.fillRow(tetrisPlayfield, row, stack.getRow(row + 4), random);
+        }
+        verticalI = PieceType.I.getShape(1);
+        tetrisY = tetrisPlayfield.drop(verticalI, well - I_COLUMN, 0);
+    }
+
+    private int next() {
+        return index = index + 1 & POSITIONS - 1;
+    }
+
+    /**
+     * A single collision check at a random position.
+     */
+    @Benchmark
+    public boolean intersects() {
+        int i = next();
+        return playfield.intersects(shapes[i], xs[i], ys[i]);
+    }
+
+    /**
+     * A hard drop from the top of the playfield.
+     */
+    @Benchmark
+    public int drop() {
+        int i = next();
+        return playfield.drop(dropShapes[i], dropXs[i], 0);
+    }
+
+    /**
+     * Copies a playfield. This is the baseline for {@link #lockTetris()}.
+     */
+    @Benchmark
+    public Playfield copy() {
+        playfield.copyFrom(tetrisPlayfield);
+        return playfield;
+    }
+
+    /**
+     * Locks a vertical I piece, which eliminates four rows. This includes a {@link #copy()} to restore the playfield.
+     */
+    @Benchmark
+    public int lockTetris() {
+        playfield.copyFrom(tetrisPlayfield);
+        playfield.merge(PieceType.I, verticalI, Playfield.COLUMNS - 1 - I_COLUMN, tetrisY);
+        return playfield.eliminateRows(tetrisY, tetrisY + PieceType.I.getSize() - 1);
+    }
+
+    /**
+     * Searches all reachable placements of a piece, which starts at its spawn position.
+     */
+    @Benchmark
+    public int searchPlacements() {
+        PieceType type = types[next() % types.length];
+        return placementSearch.search(playfield, type, 0, (Playfield.COLUMNS - type.getSize()) / 2, 0);
+    }
+}
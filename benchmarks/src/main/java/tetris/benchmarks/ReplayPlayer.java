@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.benchmarks;
+
+import tetris.engine.Game;
+import tetris.engine.replay.Replay;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Plays replay files without UI at maximum speed and prints the result of each game.
+ * <p/>
+ * Usage: ReplayPlayer [files]
+ *
+ * @author Christian Schudt
+ */
+public final class ReplayPlayer {
+
+    private ReplayPlayer() {
+    }
+
+    /**
+     * Plays replay files at maximum speed and prints the result of each game.
+     *
+     * @param args The replay files.
+     * @throws IOException If a file could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        long events = 0;
+        long start = System.nanoTime();
+        for (String file : args) {
+            Replay replay;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                replay = Replay.read(in);
+            }
+            Game game = new Game();
+            replay.play(game);
+            events += replay.getEvents();
+            System.out.println(String.format("%s: %d bytes, %d events, %.1f s, score %d, %d pieces, %d rows%s", file, replay.getSize(), replay.getEvents(), replay.getFrames() / (double) Replay.FRAMES_PER_SECOND, game.getScore(), game.getPieces(), game.getRows(), game.isGameOver() ? ", game over" : ""));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d replays in %.3f s (%.0f events/s)", args.length, seconds, events / seconds));
+    }
+}
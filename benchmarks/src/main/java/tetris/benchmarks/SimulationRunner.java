@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.benchmarks;
+
+import tetris.engine.PieceGenerator;
+import tetris.engine.PieceGenerators;
+import tetris.engine.simulation.BeamSearchPolicy;
+import tetris.engine.simulation.GreedyPolicy;
+import tetris.engine.simulation.MovePolicy;
+import tetris.engine.simulation.Simulator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Runs a {@link Simulator} from the command line and prints the result.
+ * <p/>
+ * Usage: SimulationRunner [games] [seed] [threads] [generator] [policy]
+ *
+ * @author Christian Schudt
+ */
+public final class SimulationRunner {
+
+    private SimulationRunner() {
+    }
+
+    /**
+     * Runs a simulation and prints the result.
+     *
+     * @param args The number of games, the seed, the number of threads, the piece generator ("uniform", "bag" or "history")
+     *             and the policy ("greedy" or "beam", which looks ahead one piece) (all optional).
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final String generator = args.length > 3 ? args[3] : "uniform";
+        final String policy = args.length > 4 ? args[4] : "greedy";
+        if (!policy.equals("greedy") && !policy.equals("beam")) {
+            throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Simulator simulator = new Simulator(new Supplier<MovePolicy>() {
+                @Override
+                public MovePolicy get() {
+                    return policy.equals("beam") ? new BeamSearchPolicy() : new GreedyPolicy();
+                }
+            }, pool);
+            simulator.setGenerators(new Supplier<PieceGenerator>() {
+                @Override
+                public PieceGenerator get() {
+                    return PieceGenerators.forName(generator);
+                }
+            });
+            simulator.setPieceLimit(10000);
+            System.out.println(simulator.run(games, seed));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.benchmarks;
+
+import tetris.engine.Game;
+import tetris.engine.simulation.GreedyPolicy;
+import tetris.engine.versus.VersusServer;
+import tetris.engine.versus.VersusSession;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a {@link VersusServer} on localhost against simulated clients and reports the round trip times of pings and the throughput of messages.
+ * <p/>
+ * Each client plays a headless game, one piece per tick, with the {@link GreedyPolicy} and some random mistakes, so that the matches end.
+ * After a match, the clients join again until the time is over.
+ * <p/>
+ * Usage: VersusLoadTest [matches] [players] [seconds] [tick in ms]
+ *
+ * @author Christian Schudt
+ */
+public final class VersusLoadTest {
+
+    /**
+     * The probability of a random placement instead of the best one.
+     */
+    private static final double MISTAKES = 0.15;
+
+    /**
+     * Every client sends a ping every that many ticks.
+     */
+    private static final int PING_INTERVAL = 5;
+
+    private final int players;
+
+    private final List<Player> clients = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    private VersusLoadTest(int players) {
+        this.players = players;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int tick = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        final VersusServer server = new VersusServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = new Thread(server, "Versus Server");
+        serverThread.start();
+
+        VersusLoadTest test = new VersusLoadTest(players);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        Random random = new Random(0);
+        for (int i = 0; i < matches * players; i++) {
+            Player player = test.new Player(address, random.nextLong());
+            test.clients.add(player);
+            // Spread the ticks of the clients.
+            scheduler.scheduleAtFixedRate(player, random.nextInt(tick * 1000), tick * 1000L, TimeUnit.MICROSECONDS);
+        }
+        for (Player player : test.clients) {
+            player.session.join(players);
+        }
+
+        Thread.sleep(seconds * 1000L);
+        test.running = false;
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        long messages = server.getMessages();
+        int startedMatches = server.getMatches();
+        for (Player player : test.clients) {
+            player.session.close();
+        }
+        server.close();
+        serverThread.join();
+
+        long[] roundTrips = test.getRoundTrips();
+        int ended = 0;
+        int pieces = 0;
+        for (Player player : test.clients) {
+            ended += player.ended;
+            pieces += player.pieces;
+        }
+        System.out.println("Clients:        " + test.clients.size() + " in matches of " + players);
+        System.out.println("Matches:        " + startedMatches + " started, " + ended / players + " ended");
+        System.out.println("Pieces:         " + pieces);
+        System.out.println("Messages:       " + messages + " received by the server (" + messages / seconds + "/s)");
+        if (roundTrips.length > 0) {
+            System.out.println("Round trip:     " + roundTrips.length + " pings");
+            System.out.println("  p50:          " + percentile(roundTrips, 0.5) + " us");
+            System.out.println("  p99:          " + percentile(roundTrips, 0.99) + " us");
+            System.out.println("  p99.9:        " + percentile(roundTrips, 0.999) + " us");
+            System.out.println("  max:          " + roundTrips[roundTrips.length - 1] / 1000 + " us");
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1000;
+    }
+
+    private long[] getRoundTrips() {
+        int count = 0;
+        for (Player player : clients) {
+            count += player.roundTripCount;
+        }
+        long[] roundTrips = new long[count];
+        int offset = 0;
+        for (Player player : clients) {
+            System.arraycopy(player.roundTrips, 0, roundTrips, offset, player.roundTripCount);
+            offset += player.roundTripCount;
+        }
+        Arrays.sort(roundTrips);
+        return roundTrips;
+    }
+
+    /**
+     * A simulated client. The game is guarded by its own monitor, because the messages of the server arrive on the thread of the client.
+     */
+    private final class Player implements Runnable {
+
+        private final Game game = new Game(1);
+
+        private final GreedyPolicy policy = new GreedyPolicy();
+
+        private final Random random;
+
+        private final VersusSession session;
+
+        private long ticks;
+
+        private long[] roundTrips = new long[256];
+
+        private int roundTripCount;
+
+        private int pongs;
+
+        private int ended;
+
+        private int pieces;
+
+        private boolean started;
+
+        private Player(InetSocketAddress address, long seed) throws IOException {
+            random = new Random(seed);
+            final Executor executor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    synchronized (game) {
+                        command.run();
+                        afterMessage();
+                    }
+                }
+            };
+            session = new VersusSession(game, new LongSupplier() {
+                @Override
+                public long getAsLong() {
+                    return ticks;
+                }
+            }, address, executor, new LongConsumer() {
+                @Override
+                public void accept(long seed) {
+                    game.start(seed);
+                    started = true;
+                }
+            });
+            game.addGameListener(session);
+        }
+
+        @Override
+        public void run() {
+            synchronized (game) {
+                ticks++;
+                if (!running || !started) {
+                    return;
+                }
+                if (ticks % PING_INTERVAL == 0) {
+                    session.ping();
+                }
+                if (game.isGameOver() || session.getWinner() >= 0) {
+                    return;
+                }
+                if (random.nextDouble() < MISTAKES) {
+                    for (int i = random.nextInt(4); i > 0; i--) {
+                        game.rotate(1);
+                    }
+                    int direction = random.nextBoolean() ? 1 : -1;
+                    for (int i = random.nextInt(6); i > 0 && game.move(direction); i--) {
+                    }
+                } else {
+                    policy.play(game);
+                }
+                game.dropDown();
+                game.lock();
+                pieces++;
+                if (!game.isGameOver()) {
+                    game.spawn();
+                }
+            }
+        }
+
+        /**
+         * Records the round trip times and joins the next match, after a match has ended.
+         */
+        private void afterMessage() {
+            if (session.getPongs() != pongs) {
+                pongs = session.getPongs();
+                if (roundTripCount == roundTrips.length) {
+                    roundTrips = Arrays.copyOf(roundTrips, roundTripCount * 2);
+                }
+                roundTrips[roundTripCount++] = session.getRoundTripNanos();
+            }
+            if (started && session.getWinner() >= 0) {
+                started = false;
+                ended++;
+                if (running) {
+                    session.join(players);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import java.util.Random;
+
+/**
+ * Deals the pieces from a shuffled bag, which contains each of the seven piece types once.
+ * When the bag is empty, it is refilled and shuffled again.
+ * <p/>
+ * This guarantees, that the same piece type never waits for more than 12 pieces.
+ *
+ * @author Christian Schudt
+ */
+public final class BagGenerator implements PieceGenerator {
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final PieceType[] bag = PIECE_TYPES.clone();
+
+    private final Random random = new Random();
+
+    /**
+     * The index of the next piece in the bag.
+     */
+    private int index = bag.length;
+
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+        // The shuffle depends on the order of the bag, so it has to start from the same order.
+        System.arraycopy(PIECE_TYPES, 0, bag, 0, bag.length);
+        index = bag.length;
+    }
+
+    @Override
+    public PieceType next() {
+        if (index == bag.length) {
+            // Fisher-Yates shuffle.
+            for (int i = bag.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                PieceType type = bag[i];
+                bag[i] = bag[j];
+                bag[j] = type;
+            }
+            index = 0;
+        }
+        return bag[index++];
+    }
+
+    @Override
+    public String getName() {
+        return "bag";
+    }
+}
@@ -0,0 +1,555 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The game logic. It owns the playfield, the current piece, the queue of waiting pieces and the score.
+ * <p/>
+ * This class does not depend on any UI toolkit and does not do any timing on its own.
+ * A renderer subscribes as {@link GameListener} and a controller (e.g. a timer or a simulation) drives the game
+ * by calling {@link #moveDown()}, {@link #lock()} and {@link #spawn()}.
+ *
+ * @author Christian Schudt
+ */
+public final class Game {
+
+    /**
+     * The score for eliminating 0, 1, 2, 3 or 4 rows at once.
+     */
+    private static final int[] SCORES = {0, 40, 100, 300, 1200};
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * The playfield.
+     */
+    private final Playfield playfield = new Playfield();
+
+    /**
+     * The piece types, which are coming next, by their ordinals. They are stored in a ring buffer, which starts at {@link #firstWaitingPiece}.
+     */
+    private final byte[] waitingPieces;
+
+    private int firstWaitingPiece;
+
+    private int waitingPieceCount;
+
+    /**
+     * The number of previews.
+     */
+    private final int previews;
+
+    /**
+     * The generator, which chooses the next pieces.
+     */
+    private PieceGenerator generator;
+
+    /**
+     * Creates the seeds of games, which are started without a seed.
+     */
+    private final Random seeds = new Random();
+
+    /**
+     * The seed of the current game.
+     */
+    private long seed;
+
+    /**
+     * Holds the game listeners.
+     */
+    private final List<GameListener> gameListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The current piece, which is falling.
+     */
+    private PieceType currentPiece;
+
+    /**
+     * The orientation of the current piece.
+     */
+    private int rotation;
+
+    /**
+     * The shape of the current piece in its current orientation, which is used for collision checks.
+     */
+    private PieceShape shape;
+
+    /**
+     * The current x and y position of the current piece.
+     */
+    private int x, y;
+
+    private int score;
+
+    private int rows;
+
+    private int pieces;
+
+    private boolean gameOver;
+
+    /**
+     * The garbage, which is inserted after the next lock, which doesn't eliminate rows. Each element is the number of rows shifted left by 4 bits plus the column of the hole.
+     */
+    private final Deque<Integer> pendingGarbage = new ArrayDeque<>();
+
+    /**
+     * Creates a game with one preview.
+     */
+    public Game() {
+        this(1);
+    }
+
+    /**
+     * Creates a game.
+     *
+     * @param previews The number of pieces, which are known in advance.
+     */
+    public Game(int previews) {
+        this(previews, new UniformGenerator());
+    }
+
+    /**
+     * Creates a game, whose sequence of pieces is chosen by the given generator.
+     *
+     * @param previews  The number of pieces, which are known in advance.
+     * @param generator The piece generator.
+     */
+    public Game(int previews, PieceGenerator generator) {
+        this.previews = previews;
+        this.waitingPieces = new byte[previews + 1];
+        this.generator = generator;
+    }
+
+    /**
+     * Clears the game and starts it with a random seed.
+     */
+    public void start() {
+        start(seeds.nextLong());
+    }
+
+    /**
+     * Clears the game and starts it by spawning a new piece.
+     *
+     * @param seed The seed, which determines the sequence of pieces. The same seed always leads to the same sequence.
+     */
+    public void start(long seed) {
+        clear();
+        this.seed = seed;
+        generator.setSeed(seed);
+        spawn();
+    }
+
+    /**
+     * Clears the playfield, the waiting pieces and the score.
+     */
+    public void clear() {
+        playfield.clear();
+        waitingPieceCount = 0;
+        currentPiece = null;
+        rotation = 0;
+        shape = null;
+        score = 0;
+        rows = 0;
+        pieces = 0;
+        gameOver = false;
+        pendingGarbage.clear();
+    }
+
+    /**
+     * Spawns the next piece.
+     * <p/>
+     * The piece spawns in the middle (I, O) or in the left middle (J, L, S, T, Z) of the hidden rows.
+     */
+    public void spawn() {
+        // Fill the queue of waiting pieces, if it's empty.
+        while (waitingPieceCount <= previews) {
+            waitingPieces[(firstWaitingPiece + waitingPieceCount++) % waitingPieces.length] = (byte) generator.next().ordinal();
+        }
+        currentPiece = TYPES[waitingPieces[firstWaitingPiece]];
+        firstWaitingPiece = (firstWaitingPiece + 1) % waitingPieces.length;
+        waitingPieceCount--;
+        rotation = 0;
+        shape = currentPiece.getShape(rotation);
+        x = (Playfield.COLUMNS - currentPiece.getSize()) / 2;
+        y = 0;
+        pieces++;
+        for (GameListener gameListener : gameListeners) {
+            gameListener.onSpawned(currentPiece, x, y);
+        }
+    }
+
+    /**
+     * Checks, if the current piece would intersect with the playfield at the given position.
+     *
+     * @param targetX The target X position.
+     * @param targetY The target Y position.
+     * @return True, if it does intersect (or if there is no current piece), otherwise false.
+     */
+    public boolean intersects(int targetX, int targetY) {
+        return currentPiece == null || playfield.intersects(shape, targetX, targetY);
+    }
+
+    /**
+     * Moves the current piece to left or right.
+     *
+     * @param direction The direction, -1 for left and 1 for right.
+     * @return True, if the movement was successful. False, if the movement was blocked by the playfield.
+     */
+    public boolean move(int direction) {
+        if (!intersects(x + direction, y)) {
+            x += direction;
+            for (GameListener gameListener : gameListeners) {
+                gameListener.onMoved(direction, x);
+            }
+            return true;
+        }
+        notifyInvalidMove();
+        return false;
+    }
+
+    /**
+     * Rotates the current piece.
+     *
+     * @param direction The direction, -1 for counter-clockwise and 1 for clockwise.
+     * @return True, if the rotation was successful, otherwise false.
+     */
+    public boolean rotate(int direction) {
+        if (currentPiece != null) {
+            int newRotation = (rotation + direction) & PieceType.ROTATIONS - 1;
+            PieceShape newShape = currentPiece.getShape(newRotation);
+            if (!playfield.intersects(newShape, x, y)) {
+                rotation = newRotation;
+                shape = newShape;
+                for (GameListener gameListener : gameListeners) {
+                    gameListener.onRotated(direction);
+                }
+                return true;
+            }
+        }
+        notifyInvalidMove();
+        return false;
+    }
+
+    /**
+     * Moves the current piece one row down.
+     *
+     * @return True, if the piece has moved. False, if it has reached the ground.
+     */
+    public boolean moveDown() {
+        if (!intersects(x, y + 1)) {
+            y++;
+            for (GameListener gameListener : gameListeners) {
+                gameListener.onMovedDown(y);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the current piece down to the lowest possible position.
+     */
+    public void dropDown() {
+        if (currentPiece == null) {
+            return;
+        }
+        y = playfield.drop(shape, x, y);
+        for (GameListener gameListener : gameListeners) {
+            gameListener.onDropped(y);
+        }
+    }
+
+    /**
+     * Locks the current piece, i.e. merges it with the playfield and eliminates complete rows.
+     * If the piece could not leave its spawn position, the game is over.
+     * <p/>
+     * Afterwards there's no current piece until {@link #spawn()} is called.
+     *
+     * @return A bit mask of the eliminated rows, where bit i stands for row i.
+     */
+    public int lock() {
+        if (currentPiece == null) {
+            return 0;
+        }
+        if (y == 0) {
+            // If the piece could not move and we are still in the initial y position, the game is over.
+            currentPiece = null;
+            waitingPieceCount = 0;
+            gameOver = true;
+            for (GameListener gameListener : gameListeners) {
+                gameListener.onGameOver();
+            }
+            return 0;
+        }
+        PieceType type = currentPiece;
+        playfield.merge(type, shape, x, y);
+        int eliminated = playfield.eliminateRows(y + shape.top, y + shape.top + shape.rows.length - 1);
+        int count = Integer.bitCount(eliminated);
+        rows += count;
+        score += SCORES[count];
+        currentPiece = null;
+
+        for (GameListener gameListener : gameListeners) {
+            gameListener.onLocked(type, rotation, x, y);
+        }
+        if (eliminated != 0) {
+            for (GameListener gameListener : gameListeners) {
+                gameListener.onRowsEliminated(eliminated);
+            }
+        } else {
+            while (!pendingGarbage.isEmpty() && !gameOver) {
+                int garbage = pendingGarbage.poll();
+                insertGarbage(garbage >>> 4, garbage & 0xF);
+            }
+        }
+        return eliminated;
+    }
+
+    /**
+     * Receives garbage rows, e.g. from an opponent. They are inserted after the next lock, which doesn't eliminate rows.
+     *
+     * @param rows The number of rows.
+     * @param hole The column of the hole.
+     */
+    public void addGarbage(int rows, int hole) {
+        if (rows < 1 || rows >= Playfield.ROWS || hole < 0 || hole >= Playfield.COLUMNS) {
+            throw new IllegalArgumentException("Invalid garbage: " + rows + " rows with hole at " + hole);
+        }
+        pendingGarbage.add(rows << 4 | hole);
+    }
+
+    /**
+     * Cancels pending garbage, e.g. by rows, which are eliminated before the garbage is inserted.
+     *
+     * @param rows The number of rows to cancel.
+     * @return The number of rows, which were not needed to cancel garbage.
+     */
+    public int cancelGarbage(int rows) {
+        while (rows > 0 && !pendingGarbage.isEmpty()) {
+            int garbage = pendingGarbage.poll();
+            int count = garbage >>> 4;
+            if (count > rows) {
+                pendingGarbage.addFirst(count - rows << 4 | garbage & 0xF);
+                return 0;
+            }
+            rows -= count;
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the number of garbage rows, which are about to be inserted.
+     *
+     * @return The number of rows.
+     */
+    public int getPendingGarbage() {
+        int count = 0;
+        for (int garbage : pendingGarbage) {
+            count += garbage >>> 4;
+        }
+        return count;
+    }
+
+    /**
+     * Inserts garbage rows immediately. If blocks are pushed out at the top, the game is over.
+     * <p/>
+     * This is called after a lock for the pending garbage and by replays. There must not be a current piece.
+     *
+     * @param rows The number of rows.
+     * @param hole The column of the hole.
+     */
+    public void insertGarbage(int rows, int hole) {
+        if (currentPiece != null) {
+            throw new IllegalStateException("Garbage can only be inserted between two pieces.");
+        }
+        boolean overflow = playfield.addGarbage(rows, hole);
+        for (GameListener gameListener : gameListeners) {
+            gameListener.onGarbageAdded(rows, hole);
+        }
+        if (overflow) {
+            gameOver = true;
+            waitingPieceCount = 0;
+            for (GameListener gameListener : gameListeners) {
+                gameListener.onGameOver();
+            }
+        }
+    }
+
+    private void notifyInvalidMove() {
+        for (GameListener gameListener : gameListeners) {
+            gameListener.onInvalidMove();
+        }
+    }
+
+    /**
+     * Adds a listener to the game, which gets notified for state changes.
+     *
+     * @param gameListener The listener.
+     */
+    public void addGameListener(GameListener gameListener) {
+        gameListeners.add(gameListener);
+    }
+
+    /**
+     * Removes a listener, which was previously added by {@link #addGameListener(GameListener)}.
+     *
+     * @param gameListener The listener.
+     */
+    public void removeGameListener(GameListener gameListener) {
+        gameListeners.remove(gameListener);
+    }
+
+    public Playfield getPlayfield() {
+        return playfield;
+    }
+
+    /**
+     * Gets the current piece.
+     *
+     * @return The current piece or null, if there is none.
+     */
+    public PieceType getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Gets the orientation of the current piece.
+     *
+     * @return The orientation (0-3), i.e. the number of clockwise rotations from the spawn orientation.
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Gets the shape of the current piece in its current orientation.
+     *
+     * @return The shape.
+     */
+    public PieceShape getShape() {
+        return shape;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the Y position, where the current piece lands, if it is dropped. This is where the ghost piece is shown.
+     *
+     * @return The Y position or the current Y position, if there is no current piece or if it doesn't fit.
+     */
+    public int getLandingY() {
+        if (intersects(x, y)) {
+            return y;
+        }
+        return playfield.drop(shape, x, y);
+    }
+
+    /**
+     * Gets a waiting piece, which is about to be spawned.
+     *
+     * @param index The index, where 0 will be spawned next.
+     * @return The piece type.
+     */
+    public PieceType getWaitingPiece(int index) {
+        if (index < 0 || index >= waitingPieceCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + waitingPieceCount);
+        }
+        return TYPES[waitingPieces[(firstWaitingPiece + index) % waitingPieces.length]];
+    }
+
+    /**
+     * Gets the number of waiting pieces.
+     *
+     * @return The number of waiting pieces.
+     */
+    public int getWaitingPieceCount() {
+        return waitingPieceCount;
+    }
+
+    /**
+     * Gets the generator, which chooses the pieces.
+     *
+     * @return The piece generator.
+     */
+    public PieceGenerator getPieceGenerator() {
+        return generator;
+    }
+
+    /**
+     * Sets the generator, which chooses the pieces. It is used from the next call of {@link #start(long)} on.
+     *
+     * @param generator The piece generator.
+     */
+    public void setPieceGenerator(PieceGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Gets the seed of the current game.
+     *
+     * @return The seed, which has been passed to {@link #start(long)}.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the total number of eliminated rows.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of spawned pieces.
+     *
+     * @return The number of pieces.
+     */
+    public int getPieces() {
+        return pieces;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import java.util.EventListener;
+
+/**
+ * Allows to listen for state changes of a {@link Game}.
+ *
+ * @author Christian Schudt
+ */
+public interface GameListener extends EventListener {
+
+    /**
+     * Called, when a new piece has been spawned.
+     *
+     * @param type The type of the piece.
+     * @param x    The X position.
+     * @param y    The Y position.
+     */
+    void onSpawned(PieceType type, int x, int y);
+
+    /**
+     * Called when the piece was moved to left or right.
+     *
+     * @param direction The direction, -1 for left and 1 for right.
+     * @param x         The new X position.
+     */
+    void onMoved(int direction, int x);
+
+    /**
+     * Called when the piece was rotated.
+     *
+     * @param direction The direction, -1 for counter-clockwise and 1 for clockwise.
+     */
+    void onRotated(int direction);
+
+    /**
+     * Called when the piece has moved one row down.
+     *
+     * @param y The new Y position.
+     */
+    void onMovedDown(int y);
+
+    /**
+     * Called when the piece has been dropped down to the lowest possible position.
+     *
+     * @param y The new Y position.
+     */
+    void onDropped(int y);
+
+    /**
+     * Called when an invalid move was tried.
+     */
+    void onInvalidMove();
+
+    /**
+     * Called when the piece has been merged with the playfield.
+     *
+     * @param type     The type of the piece.
+     * @param rotation The orientation of the piece.
+     * @param x        The X position.
+     * @param y        The Y position.
+     */
+    void onLocked(PieceType type, int rotation, int x, int y);
+
+    /**
+     * Called, when one or more rows are full and therefore get eliminated.
+     *
+     * @param rows A bit mask of the eliminated rows, where bit i stands for row i.
+     */
+    void onRowsEliminated(int rows);
+
+    /**
+     * Called when the game is over.
+     */
+    void onGameOver();
+
+    /**
+     * Called when garbage rows have been inserted at the bottom of the playfield.
+     *
+     * @param rows The number of rows.
+     * @param hole The column of the hole.
+     */
+    void onGarbageAdded(int rows, int hole);
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+/**
+ * Advances a {@link Game} in fixed time steps. A timer calls {@link #tick()} {@value #TICKS_PER_SECOND} times per second,
+ * so that gravity, lock and spawn timing only depend on the number of ticks, but not on the frame rate or animations.
+ * <p/>
+ * The input methods ({@link #move(int)}, {@link #rotate(int)}, {@link #setSoftDrop(boolean)} and {@link #drop()})
+ * are applied immediately.
+ *
+ * @author Christian Schudt
+ */
+public final class GameLoop {
+
+    /**
+     * The number of ticks per second.
+     */
+    public static final int TICKS_PER_SECOND = 60;
+
+    /**
+     * The ticks, until the piece falls one row by gravity.
+     */
+    private static final int GRAVITY_TICKS = 36;
+
+    /**
+     * The ticks, until the piece falls one row while it is soft dropped.
+     */
+    private static final int SOFT_DROP_TICKS = 5;
+
+    /**
+     * The ticks between a hard drop and the lock.
+     */
+    private static final int DROP_TICKS = 6;
+
+    /**
+     * The ticks between a lock, which eliminated rows, and the next spawn.
+     */
+    private static final int CLEAR_TICKS = 55;
+
+    private final Game game;
+
+    /**
+     * The ticks since the piece fell the last time.
+     */
+    private int gravityTicks;
+
+    /**
+     * The ticks until the piece locks after a hard drop or until the next piece spawns, if there's no piece.
+     */
+    private int delayTicks;
+
+    private boolean softDrop;
+
+    private boolean dropping;
+
+    /**
+     * Creates a game loop.
+     *
+     * @param game The game, which is advanced by this loop.
+     */
+    public GameLoop(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Starts the game with a random seed.
+     */
+    public void start() {
+        reset();
+        game.start();
+        fall();
+    }
+
+    /**
+     * Starts the game.
+     *
+     * @param seed The seed.
+     */
+    public void start(long seed) {
+        reset();
+        game.start(seed);
+        fall();
+    }
+
+    private void reset() {
+        gravityTicks = 0;
+        delayTicks = 0;
+        softDrop = false;
+        dropping = false;
+    }
+
+    /**
+     * Advances the game by one tick.
+     */
+    public void tick() {
+        if (game.isGameOver()) {
+            return;
+        }
+        if (game.getCurrentPiece() == null) {
+            if (--delayTicks <= 0) {
+                game.spawn();
+                gravityTicks = 0;
+                fall();
+            }
+        } else if (dropping) {
+            if (--delayTicks <= 0) {
+                lock();
+            }
+        } else if (++gravityTicks >= (softDrop ? SOFT_DROP_TICKS : GRAVITY_TICKS)) {
+            gravityTicks = 0;
+            fall();
+        }
+    }
+
+    /**
+     * Moves the current piece to left or right.
+     *
+     * @param direction The direction, -1 for left and 1 for right.
+     * @return True, if the piece has moved.
+     */
+    public boolean move(int direction) {
+        return !dropping && game.getCurrentPiece() != null && game.move(direction);
+    }
+
+    /**
+     * Rotates the current piece.
+     *
+     * @param direction The direction, -1 for counter-clockwise and 1 for clockwise.
+     * @return True, if the piece has rotated.
+     */
+    public boolean rotate(int direction) {
+        return !dropping && game.getCurrentPiece() != null && game.rotate(direction);
+    }
+
+    /**
+     * Starts or stops the soft drop, i.e. the piece falls faster. When it starts, the piece falls immediately.
+     *
+     * @param softDrop True, to start the soft drop, false to stop it.
+     */
+    public void setSoftDrop(boolean softDrop) {
+        if (this.softDrop == softDrop) {
+            return;
+        }
+        this.softDrop = softDrop;
+        gravityTicks = 0;
+        if (softDrop && !dropping && game.getCurrentPiece() != null) {
+            fall();
+        }
+    }
+
+    public boolean isSoftDrop() {
+        return softDrop;
+    }
+
+    /**
+     * Drops the current piece down to the lowest possible position. It locks shortly afterwards.
+     */
+    public void drop() {
+        if (!dropping && game.getCurrentPiece() != null) {
+            game.dropDown();
+            dropping = true;
+            delayTicks = DROP_TICKS;
+        }
+    }
+
+    /**
+     * Checks, if the current piece has been dropped and is about to lock.
+     *
+     * @return True, if it is dropping.
+     */
+    public boolean isDropping() {
+        return dropping;
+    }
+
+    /**
+     * Moves the current piece one row down or locks it, if it has reached the ground.
+     */
+    private void fall() {
+        if (!game.moveDown()) {
+            lock();
+        }
+    }
+
+    private void lock() {
+        dropping = false;
+        int eliminated = game.lock();
+        // Give the eliminated rows some time to disappear.
+        delayTicks = eliminated != 0 ? CLEAR_TICKS : 1;
+    }
+}
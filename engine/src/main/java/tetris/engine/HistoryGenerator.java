@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import java.util.Random;
+
+/**
+ * Chooses the pieces like "The Grand Master": It remembers the last four pieces and rolls again,
+ * if the chosen piece is among them. After a limited number of rolls the last one is taken anyway.
+ * <p/>
+ * The history starts with Z pieces and the first piece is never S, Z or O, so that the game does not start with an overhang.
+ *
+ * @author Christian Schudt
+ */
+public final class HistoryGenerator implements PieceGenerator {
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private static final PieceType[] FIRST_PIECE_TYPES = {PieceType.I, PieceType.J, PieceType.L, PieceType.T};
+
+    private static final int HISTORY_SIZE = 4;
+
+    private final PieceType[] history = new PieceType[HISTORY_SIZE];
+
+    private final Random random = new Random();
+
+    private final int rolls;
+
+    /**
+     * The index of the oldest piece in the history.
+     */
+    private int oldest;
+
+    private boolean first;
+
+    /**
+     * Creates a generator, which rolls up to four times (like the first game of the series).
+     */
+    public HistoryGenerator() {
+        this(4);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param rolls The maximal number of rolls per piece, e.g. 4 or 6.
+     */
+    public HistoryGenerator(int rolls) {
+        if (rolls < 1) {
+            throw new IllegalArgumentException("rolls must be positive.");
+        }
+        this.rolls = rolls;
+        setSeed(0);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+        for (int i = 0; i < history.length; i++) {
+            history[i] = PieceType.Z;
+        }
+        oldest = 0;
+        first = true;
+    }
+
+    @Override
+    public PieceType next() {
+        PieceType type;
+        if (first) {
+            type = FIRST_PIECE_TYPES[random.nextInt(FIRST_PIECE_TYPES.length)];
+            first = false;
+        } else {
+            type = PIECE_TYPES[random.nextInt(PIECE_TYPES.length)];
+            for (int i = 1; i < rolls && isInHistory(type); i++) {
+                type = PIECE_TYPES[random.nextInt(PIECE_TYPES.length)];
+            }
+        }
+        history[oldest] = type;
+        oldest = (oldest + 1) % HISTORY_SIZE;
+        return type;
+    }
+
+    @Override
+    public String getName() {
+        return rolls == 4 ? "history" : "history" + rolls;
+    }
+
+    private boolean isInHistory(PieceType type) {
+        for (PieceType piece : history) {
+            if (piece == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
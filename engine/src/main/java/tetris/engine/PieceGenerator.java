@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+/**
+ * Chooses the sequence of pieces of a game.
+ * <p/>
+ * A generator is deterministic: After {@link #setSeed(long)} it always produces the same sequence for the same seed,
+ * so that games can be reproduced, e.g. in simulations or replays.
+ *
+ * @author Christian Schudt
+ * @see UniformGenerator
+ * @see BagGenerator
+ * @see HistoryGenerator
+ */
+public interface PieceGenerator {
+
+    /**
+     * Resets the generator, so that it starts a new sequence.
+     *
+     * @param seed The seed, which determines the sequence.
+     */
+    void setSeed(long seed);
+
+    /**
+     * Gets the next piece of the sequence.
+     *
+     * @return The piece type.
+     */
+    PieceType next();
+
+    /**
+     * Gets the name of this generator, which is understood by {@link PieceGenerators#forName(String)}.
+     *
+     * @return The name.
+     */
+    String getName();
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+/**
+ * Creates piece generators by their names, e.g. from a system property or a replay.
+ *
+ * @author Christian Schudt
+ */
+public final class PieceGenerators {
+
+    private PieceGenerators() {
+    }
+
+    /**
+     * Creates a piece generator.
+     *
+     * @param name The name, i.e. "uniform", "bag", "history" or "history" followed by the number of rolls (e.g. "history6").
+     * @return The piece generator.
+     * @throws IllegalArgumentException If there is no generator with this name.
+     * @see PieceGenerator#getName()
+     */
+    public static PieceGenerator forName(String name) {
+        switch (name) {
+            case "uniform":
+                return new UniformGenerator();
+            case "bag":
+                return new BagGenerator();
+            case "history":
+                return new HistoryGenerator();
+            default:
+                if (name.startsWith("history")) {
+                    try {
+                        return new HistoryGenerator(Integer.parseInt(name.substring("history".length())));
+                    } catch (NumberFormatException e) {
+                        // Fall through to the exception below.
+                    }
+                }
+                throw new IllegalArgumentException("Unknown piece generator: " + name);
+        }
+    }
+}
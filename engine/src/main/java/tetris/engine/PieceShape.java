@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+/**
+ * The shape of a piece in one orientation, stored as one bit mask per row.
+ * <p/>
+ * Only the occupied rows and columns of the piece's matrix are stored. Bit 0 of each row mask stands for the leftmost occupied column.
+ *
+ * @author Christian Schudt
+ */
+public final class PieceShape {
+
+    /**
+     * The row masks of the occupied rows, from top to bottom.
+     */
+    final int[] rows;
+
+    /**
+     * The index of the leftmost occupied column within the matrix.
+     */
+    final int left;
+
+    /**
+     * The index of the topmost occupied row within the matrix.
+     */
+    final int top;
+
+    /**
+     * The number of occupied columns (from the leftmost to the rightmost).
+     */
+    final int width;
+
+    /**
+     * The index of the lowest occupied row (relative to {@link #top}) of each occupied column, which is the profile the piece lands on.
+     */
+    final int[] bottoms;
+
+    /**
+     * Creates the shape from a matrix, in which a cell is occupied, if it is 1.
+     *
+     * @param matrix The matrix.
+     */
+    public PieceShape(int[][] matrix) {
+        int minRow = matrix.length, maxRow = -1, minColumn = matrix.length, maxColumn = -1;
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[i].length; j++) {
+                if (matrix[i][j] == 1) {
+                    minRow = Math.min(minRow, i);
+                    maxRow = Math.max(maxRow, i);
+                    minColumn = Math.min(minColumn, j);
+                    maxColumn = Math.max(maxColumn, j);
+                }
+            }
+        }
+        top = minRow;
+        left = minColumn;
+        width = maxColumn - minColumn + 1;
+        rows = new int[maxRow - minRow + 1];
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < width; j++) {
+                if (matrix[top + i][left + j] == 1) {
+                    rows[i] |= 1 << j;
+                }
+            }
+        }
+        bottoms = new int[width];
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < width; j++) {
+                if ((rows[i] & 1 << j) != 0) {
+                    bottoms[j] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the leftmost occupied column within the piece's matrix.
+     *
+     * @return The column offset.
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * Gets the index of the topmost occupied row within the piece's matrix.
+     *
+     * @return The row offset.
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Gets the number of occupied columns.
+     *
+     * @return The width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the number of occupied rows.
+     *
+     * @return The height.
+     */
+    public int getHeight() {
+        return rows.length;
+    }
+
+    /**
+     * Gets the mask of an occupied row.
+     *
+     * @param row The row, relative to {@link #getTop()}.
+     * @return The mask, where bit 0 stands for the column {@link #getLeft()}.
+     */
+    public int getRow(int row) {
+        return rows[row];
+    }
+
+    /**
+     * Gets the lowest occupied row of a column.
+     *
+     * @param column The column, relative to {@link #getLeft()}.
+     * @return The row, relative to {@link #getTop()}.
+     */
+    public int getBottom(int column) {
+        return bottoms[column];
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+/**
+ * The seven tetromino types and their four orientations, which are computed once.
+ *
+ * @author Christian Schudt
+ */
+public enum PieceType {
+
+    I(new int[][]{
+            {0, 0, 0, 0},
+            {1, 1, 1, 1},
+            {0, 0, 0, 0},
+            {0, 0, 0, 0}
+    }),
+
+    J(new int[][]{
+            {1, 0, 0},
+            {1, 1, 1},
+            {0, 0, 0}
+    }),
+
+    L(new int[][]{
+            {0, 0, 1},
+            {1, 1, 1},
+            {0, 0, 0}
+    }),
+
+    O(new int[][]{
+            {1, 1},
+            {1, 1}
+    }),
+
+    S(new int[][]{
+            {0, 1, 1},
+            {1, 1, 0},
+            {0, 0, 0}
+    }),
+
+    T(new int[][]{
+            {0, 1, 0},
+            {1, 1, 1},
+            {0, 0, 0}
+    }),
+
+    Z(new int[][]{
+            {1, 1, 0},
+            {0, 1, 1},
+            {0, 0, 0}
+    });
+
+    /**
+     * The number of orientations of a piece.
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The matrices of the four orientations. Orientation r is the spawn orientation rotated r times clockwise.
+     */
+    private final int[][][] matrices = new int[ROTATIONS][][];
+
+    /**
+     * The shapes of the four orientations, which are used for collision checks.
+     */
+    private final PieceShape[] shapes = new PieceShape[ROTATIONS];
+
+    private PieceType(int[][] matrix) {
+        matrices[0] = matrix;
+        for (int r = 1; r < ROTATIONS; r++) {
+            int[][] previous = matrices[r - 1];
+            int[][] rotated = new int[previous.length][previous.length];
+            for (int i = 0; i < previous.length; i++) {
+                for (int j = 0; j < previous[i].length; j++) {
+                    rotated[j][previous.length - 1 - i] = previous[i][j];
+                }
+            }
+            matrices[r] = rotated;
+        }
+        for (int r = 0; r < ROTATIONS; r++) {
+            shapes[r] = new PieceShape(matrices[r]);
+        }
+    }
+
+    /**
+     * Gets the matrix of the piece in its spawn orientation. A cell is occupied, if it is 1.
+     * <p/>
+     * The returned array is shared and must not be modified.
+     *
+     * @return The matrix.
+     */
+    public int[][] getMatrix() {
+        return matrices[0];
+    }
+
+    /**
+     * Gets the matrix of the piece in an orientation. A cell is occupied, if it is 1.
+     * <p/>
+     * The returned array is shared and must not be modified.
+     *
+     * @param rotation The orientation (0-3), i.e. the number of clockwise rotations from the spawn orientation.
+     * @return The matrix.
+     */
+    public int[][] getMatrix(int rotation) {
+        return matrices[rotation];
+    }
+
+    /**
+     * Gets the shape of the piece in an orientation.
+     *
+     * @param rotation The orientation (0-3), i.e. the number of clockwise rotations from the spawn orientation.
+     * @return The shape.
+     */
+    public PieceShape getShape(int rotation) {
+        return shapes[rotation];
+    }
+
+    /**
+     * Gets the size of the (quadratic) matrix.
+     *
+     * @return The size.
+     */
+    public int getSize() {
+        return matrices[0].length;
+    }
+}
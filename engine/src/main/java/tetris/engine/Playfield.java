@@ -0,0 +1,389 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import java.util.Arrays;
+
+/**
+ * The playfield, which holds the locked blocks.
+ * <p/>
+ * Row 0 is the top row. The first {@link #HIDDEN_ROWS} rows are located invisible above the visible area.
+ *
+ * @author Christian Schudt
+ */
+public final class Playfield {
+
+    /**
+     * The number of hidden rows, which are located invisible above the board.
+     * This is the area where the tetrominos spawn.
+     * By default there are 2.
+     */
+    public static final int HIDDEN_ROWS = 2;
+
+    /**
+     * The number of blocks per row. By default this is 10.
+     */
+    public static final int COLUMNS = 10;
+
+    /**
+     * The number of visible blocks per column. By default this is 20.
+     */
+    public static final int VISIBLE_ROWS = 20;
+
+    /**
+     * The total number of rows, including the hidden rows.
+     */
+    public static final int ROWS = VISIBLE_ROWS + HIDDEN_ROWS;
+
+    /**
+     * The mask of a complete row.
+     */
+    public static final int FULL_ROW = (1 << COLUMNS) - 1;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    /**
+     * The type of a garbage block, which doesn't belong to a piece.
+     */
+    private static final byte GARBAGE = -1;
+
+    /**
+     * The occupied cells, one bit mask per row. Bit j stands for column j.
+     */
+    private final int[] rows = new int[ROWS];
+
+    /**
+     * The piece types of the occupied cells (the ordinal + 1), which are only needed for rendering. 0 means the cell is empty and {@link #GARBAGE} a garbage block.
+     */
+    private final byte[] types = new byte[ROWS * COLUMNS];
+
+    /**
+     * The height of each column, i.e. the number of rows from the bottom up to its topmost block (0, if the column is empty).
+     * It is updated on each merge and elimination, so that the landing position of a piece doesn't need to be scanned.
+     * <p/>
+     * Like the other column statistics, it costs only one update per block of a merged piece. Only eliminations update all columns.
+     */
+    private final int[] heights = new int[COLUMNS];
+
+    /**
+     * The number of blocks in each column.
+     */
+    private final int[] blocks = new int[COLUMNS];
+
+    /**
+     * The sum of all column heights.
+     */
+    private int aggregateHeight;
+
+    /**
+     * The number of empty cells, which are below the topmost block of their column.
+     */
+    private int holes;
+
+    /**
+     * Calculates if a piece would intersect with the playfield.
+     * <p/>
+     * It intersects either, if it hits another block or if it exceeds the left, right or bottom border.
+     *
+     * @param shape   The shape of the piece.
+     * @param targetX The target X position of the piece's matrix.
+     * @param targetY The target Y position of the piece's matrix.
+     * @return True, if it does intersect with the playfield, otherwise false.
+     */
+    public boolean intersects(final PieceShape shape, int targetX, int targetY) {
+        int column = targetX + shape.left;
+        int row = targetY + shape.top;
+        if (column < 0 || column + shape.width > COLUMNS || row + shape.rows.length > ROWS) {
+            return true;
+        }
+        for (int i = 0; i < shape.rows.length; i++) {
+            if (row + i >= 0 && (rows[row + i] & shape.rows[i] << column) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calculates the lowest position, a piece can be dropped to from the given position.
+     * <p/>
+     * If the piece is above all blocks of its columns, the position is calculated from the column heights and the bottom profile of the piece.
+     * Only if it is below an overhang, the position is searched row by row.
+     *
+     * @param shape The shape of the piece.
+     * @param x     The X position of the piece's matrix.
+     * @param y     The Y position of the piece's matrix, which must not intersect.
+     * @return The Y position of the piece's matrix after dropping it.
+     */
+    public int drop(final PieceShape shape, int x, int y) {
+        int column = x + shape.left;
+        int landing = ROWS;
+        for (int j = 0; j < shape.width; j++) {
+            landing = Math.min(landing, ROWS - heights[column + j] - 1 - shape.bottoms[j]);
+        }
+        landing -= shape.top;
+        if (landing >= y) {
+            return landing;
+        }
+        do {
+            y++;
+        }
+        while (!intersects(shape, x, y));
+        return y - 1;
+    }
+
+    /**
+     * Merges a piece into the playfield. The piece must not intersect with the playfield.
+     *
+     * @param type  The piece type.
+     * @param shape The shape of the piece.
+     * @param x     The X position of the piece's matrix.
+     * @param y     The Y position of the piece's matrix.
+     */
+    public void merge(PieceType type, PieceShape shape, int x, int y) {
+        int column = x + shape.left;
+        int row = y + shape.top;
+        byte value = (byte) (type.ordinal() + 1);
+        for (int i = 0; i < shape.rows.length; i++) {
+            if (row + i >= 0) {
+                int mask = shape.rows[i] << column;
+                rows[row + i] |= mask;
+                int height = ROWS - row - i;
+                for (int j = 0; j < shape.width; j++) {
+                    if ((shape.rows[i] & 1 << j) != 0) {
+                        blocks[column + j]++;
+                        holes--;
+                        if (heights[column + j] < height) {
+                            // The cells between the old and the new top are holes now (or are filled by the piece itself).
+                            aggregateHeight += height - heights[column + j];
+                            holes += height - heights[column + j];
+                            heights[column + j] = height;
+                        }
+                    }
+                }
+                for (int j = column; mask >>> j != 0; j++) {
+                    if ((mask & 1 << j) != 0) {
+                        types[(row + i) * COLUMNS + j] = value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Eliminates all complete rows in the given range and lets the rows above fall down.
+     *
+     * @param fromRow The first row to check (inclusive).
+     * @param toRow   The last row to check (inclusive).
+     * @return A bit mask of the eliminated rows, where bit i stands for row i (before the rows above have fallen down).
+     */
+    public int eliminateRows(int fromRow, int toRow) {
+        int eliminated = 0;
+        for (int i = Math.max(fromRow, 0); i <= Math.min(toRow, ROWS - 1); i++) {
+            if (rows[i] == FULL_ROW) {
+                eliminated |= 1 << i;
+            }
+        }
+        if (eliminated != 0) {
+            int target = ROWS - 1;
+            for (int i = ROWS - 1; i >= 0; i--) {
+                if ((eliminated & 1 << i) == 0) {
+                    if (target != i) {
+                        rows[target] = rows[i];
+                        System.arraycopy(types, i * COLUMNS, types, target * COLUMNS, COLUMNS);
+                    }
+                    target--;
+                }
+            }
+            Arrays.fill(rows, 0, target + 1, 0);
+            Arrays.fill(types, 0, (target + 1) * COLUMNS, (byte) 0);
+
+            int count = Integer.bitCount(eliminated);
+            aggregateHeight = 0;
+            holes = 0;
+            for (int column = 0; column < COLUMNS; column++) {
+                // All eliminated rows are below the top of each column, because they are complete.
+                int height = heights[column] - Integer.bitCount(eliminated >>> ROWS - heights[column]);
+                // If the topmost block has been eliminated, the column is lower.
+                while (height > 0 && (rows[ROWS - height] & 1 << column) == 0) {
+                    height--;
+                }
+                heights[column] = height;
+                blocks[column] -= count;
+                aggregateHeight += height;
+                holes += height - blocks[column];
+            }
+        }
+        return eliminated;
+    }
+
+    /**
+     * Inserts garbage rows at the bottom and pushes all blocks up. Each garbage row is complete except for one hole.
+     *
+     * @param count The number of rows.
+     * @param hole  The column of the hole.
+     * @return True, if blocks have been pushed out at the top, which means that the game is lost.
+     */
+    public boolean addGarbage(int count, int hole) {
+        if (count < 1 || count >= ROWS || hole < 0 || hole >= COLUMNS) {
+            throw new IllegalArgumentException("Invalid garbage: " + count + " rows with hole at " + hole);
+        }
+        boolean overflow = false;
+        for (int i = 0; i < count; i++) {
+            overflow |= rows[i] != 0;
+        }
+        System.arraycopy(rows, count, rows, 0, ROWS - count);
+        System.arraycopy(types, count * COLUMNS, types, 0, (ROWS - count) * COLUMNS);
+        int mask = FULL_ROW & ~(1 << hole);
+        for (int row = ROWS - count; row < ROWS; row++) {
+            rows[row] = mask;
+            Arrays.fill(types, row * COLUMNS, (row + 1) * COLUMNS, GARBAGE);
+            types[row * COLUMNS + hole] = 0;
+        }
+
+        aggregateHeight = 0;
+        holes = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            if (overflow) {
+                // Blocks are lost, so count the column again.
+                heights[column] = 0;
+                blocks[column] = 0;
+                for (int row = ROWS - 1; row >= 0; row--) {
+                    if ((rows[row] & 1 << column) != 0) {
+                        heights[column] = ROWS - row;
+                        blocks[column]++;
+                    }
+                }
+            } else if (column != hole) {
+                heights[column] += count;
+                blocks[column] += count;
+            } else if (heights[column] > 0) {
+                heights[column] += count;
+            }
+            aggregateHeight += heights[column];
+            holes += heights[column] - blocks[column];
+        }
+        return overflow;
+    }
+
+    /**
+     * Gets the mask of the occupied cells of a row.
+     *
+     * @param row The row.
+     * @return The mask, where bit j stands for column j.
+     */
+    public int getRow(int row) {
+        return rows[row];
+    }
+
+    /**
+     * Gets the height of a column.
+     *
+     * @param column The column.
+     * @return The number of rows from the bottom up to the topmost block of the column, or 0 if the column is empty.
+     */
+    public int getColumnHeight(int column) {
+        return heights[column];
+    }
+
+    /**
+     * Gets the number of holes of a column, i.e. the empty cells below its topmost block.
+     *
+     * @param column The column.
+     * @return The number of holes.
+     */
+    public int getColumnHoles(int column) {
+        return heights[column] - blocks[column];
+    }
+
+    /**
+     * Gets the depth of the well in a column, i.e. how far the column is below both of its neighbors. The walls count as infinitely high.
+     *
+     * @param column The column.
+     * @return The depth of the well or 0, if the column is not below both of its neighbors.
+     */
+    public int getWellDepth(int column) {
+        int left = column > 0 ? heights[column - 1] : ROWS;
+        int right = column < COLUMNS - 1 ? heights[column + 1] : ROWS;
+        return Math.max(Math.min(left, right) - heights[column], 0);
+    }
+
+    /**
+     * Gets the sum of all column heights.
+     *
+     * @return The aggregate height.
+     */
+    public int getAggregateHeight() {
+        return aggregateHeight;
+    }
+
+    /**
+     * Gets the number of holes of all columns.
+     *
+     * @return The number of holes.
+     * @see #getColumnHoles(int)
+     */
+    public int getHoles() {
+        return holes;
+    }
+
+    /**
+     * Gets the block at the given position.
+     *
+     * @param row    The row.
+     * @param column The column.
+     * @return The type of the piece, the block belonged to or null, if the cell is empty or a garbage block.
+     */
+    public PieceType getCell(int row, int column) {
+        int value = types[row * COLUMNS + column];
+        return value <= 0 ? null : PIECE_TYPES[value - 1];
+    }
+
+    /**
+     * Copies all blocks from another playfield into this one.
+     *
+     * @param playfield The other playfield.
+     */
+    public void copyFrom(Playfield playfield) {
+        System.arraycopy(playfield.rows, 0, rows, 0, ROWS);
+        System.arraycopy(playfield.types, 0, types, 0, types.length);
+        System.arraycopy(playfield.heights, 0, heights, 0, COLUMNS);
+        System.arraycopy(playfield.blocks, 0, blocks, 0, COLUMNS);
+        aggregateHeight = playfield.aggregateHeight;
+        holes = playfield.holes;
+    }
+
+    /**
+     * Removes all blocks.
+     */
+    public void clear() {
+        Arrays.fill(rows, 0);
+        Arrays.fill(types, (byte) 0);
+        Arrays.fill(heights, 0);
+        Arrays.fill(blocks, 0);
+        aggregateHeight = 0;
+        holes = 0;
+    }
+}
@@ -22,36 +22,33 @@
  * THE SOFTWARE.
  */
 
-package tetris;
+package tetris.engine;
 
-import javafx.application.Application;
-import javafx.scene.Scene;
-import javafx.stage.Stage;
+import java.util.Random;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
-
-public final class App extends Application {
-
-    @Override
-    public void start(Stage primaryStage) throws Exception {
-
-        System.out.println(System.getProperty("javafx.runtime.version"));
+/**
+ * Chooses each piece independently and with equal probability. Long droughts of a piece type are possible.
+ *
+ * @author Christian Schudt
+ */
+public final class UniformGenerator implements PieceGenerator {
 
-        primaryStage.setTitle("Tetris");
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
 
-        Scene scene = new Scene(new Tetris());
+    private final Random random = new Random();
 
-        primaryStage.setScene(scene);
-        primaryStage.show();
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
     }
 
-    public static final class Launcher {
+    @Override
+    public PieceType next() {
+        return PIECE_TYPES[random.nextInt(PIECE_TYPES.length)];
+    }
 
-        public static void main(String[] args) {
-            launch(App.class, args);
-        }
+    @Override
+    public String getName() {
+        return "uniform";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.replay;
+
+import tetris.engine.Game;
+import tetris.engine.GameLoop;
+import tetris.engine.PieceGenerators;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A recorded game, which consists of the piece generator, the seed and the frame-stamped events.
+ * <p/>
+ * Replaying the events on a game, which is started with the same generator and seed, leads to exactly the same game.
+ *
+ * @author Christian Schudt
+ * @see ReplayRecorder
+ */
+public final class Replay {
+
+    /**
+     * The number of frames per second, which the clock of a {@link ReplayRecorder} should have.
+     */
+    public static final int FRAMES_PER_SECOND = GameLoop.TICKS_PER_SECOND;
+
+    private static final int MAGIC = 0x54525052;
+
+    /**
+     * The version of the format. Version 2 added garbage events, so version 1 can still be read.
+     */
+    private static final int VERSION = 2;
+
+    private final String generator;
+
+    private final long seed;
+
+    private final byte[] data;
+
+    private final int events;
+
+    private final long frames;
+
+    Replay(String generator, long seed, byte[] data, int events, long frames) {
+        this.generator = generator;
+        this.seed = seed;
+        this.data = data;
+        this.events = events;
+        this.frames = frames;
+    }
+
+    /**
+     * Reads a replay, which has been written by {@link #write(OutputStream)}.
+     *
+     * @param in The input stream. It is not closed.
+     * @return The replay.
+     * @throws IOException If the stream could not be read or is not a replay.
+     */
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(in);
+        if (dataInputStream.readInt() != MAGIC) {
+            throw new IOException("Not a replay.");
+        }
+        int version = dataInputStream.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        String generator = dataInputStream.readUTF();
+        long seed = dataInputStream.readLong();
+        int events = dataInputStream.readInt();
+        long frames = dataInputStream.readLong();
+        int length = dataInputStream.readInt();
+        if (events < 0 || frames < 0 || length < 0) {
+            throw new IOException("Corrupt replay header.");
+        }
+        byte[] data = readData(dataInputStream, length);
+        Replay replay = new Replay(generator, seed, data, events, frames);
+        replay.verify();
+        return replay;
+    }
+
+    /**
+     * Reads the encoded events. The array grows with the data, which is actually read, so that a corrupt length does not allocate a huge array.
+     */
+    private static byte[] readData(DataInputStream in, int length) throws IOException {
+        byte[] data = new byte[Math.min(length, 1 << 16)];
+        int read = 0;
+        while (read < length) {
+            if (read == data.length) {
+                data = Arrays.copyOf(data, (int) Math.min(length, 2L * data.length));
+            }
+            in.readFully(data, read, data.length - read);
+            read = data.length;
+        }
+        return data;
+    }
+
+    /**
+     * Decodes all events and checks them against the header.
+     */
+    private void verify() throws IOException {
+        int count = 0;
+        long frame = 0;
+        try {
+            ReplayReader reader = reader();
+            while (reader.hasNext()) {
+                frame = reader.getFrame();
+                reader.next();
+                count++;
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException("Corrupt replay.", e);
+        }
+        if (count != events || frame != frames) {
+            throw new IOException("Corrupt replay: " + count + " events in " + frame + " frames, expected " + events + " events in " + frames + " frames.");
+        }
+    }
+
+    /**
+     * Writes this replay.
+     *
+     * @param out The output stream. It is not closed.
+     * @throws IOException If the stream could not be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(out);
+        dataOutputStream.writeInt(MAGIC);
+        dataOutputStream.writeByte(VERSION);
+        dataOutputStream.writeUTF(generator);
+        dataOutputStream.writeLong(seed);
+        dataOutputStream.writeInt(events);
+        dataOutputStream.writeLong(frames);
+        dataOutputStream.writeInt(data.length);
+        dataOutputStream.write(data);
+        dataOutputStream.flush();
+    }
+
+    /**
+     * Starts the game with the generator and seed of this replay. Afterwards the events can be applied.
+     *
+     * @param game The game.
+     * @see #reader()
+     */
+    public void start(Game game) {
+        game.setPieceGenerator(PieceGenerators.forName(generator));
+        game.start(seed);
+    }
+
+    /**
+     * Plays the whole replay at once, without any timing.
+     *
+     * @param game The game, which is started and played.
+     */
+    public void play(Game game) {
+        start(game);
+        ReplayReader reader = reader();
+        while (reader.hasNext()) {
+            reader.next().apply(game, reader.getArgument());
+        }
+    }
+
+    /**
+     * Creates a reader for the events.
+     *
+     * @return The reader.
+     */
+    public ReplayReader reader() {
+        return new ReplayReader(data);
+    }
+
+    /**
+     * Gets the name of the piece generator.
+     *
+     * @return The name.
+     * @see tetris.engine.PieceGenerator#getName()
+     */
+    public String getGenerator() {
+        return generator;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of events.
+     *
+     * @return The number of events.
+     */
+    public int getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the duration of the game.
+     *
+     * @return The number of frames from the start of the game until the last event.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Gets the size of the encoded events.
+     *
+     * @return The size in bytes.
+     */
+    public int getSize() {
+        return data.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Replay)) {
+            return false;
+        }
+        Replay other = (Replay) o;
+        return generator.equals(other.generator) && seed == other.seed && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * generator.hashCode() + Long.hashCode(seed)) + Arrays.hashCode(data);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.replay;
+
+import tetris.engine.Game;
+
+/**
+ * An event of a replay, i.e. an operation on a {@link Game}, which changed its state.
+ *
+ * @author Christian Schudt
+ */
+public enum ReplayEvent {
+
+    MOVE_LEFT {
+        @Override
+        public void apply(Game game, int argument) {
+            game.move(-1);
+        }
+    },
+    MOVE_RIGHT {
+        @Override
+        public void apply(Game game, int argument) {
+            game.move(1);
+        }
+    },
+    ROTATE_CLOCKWISE {
+        @Override
+        public void apply(Game game, int argument) {
+            game.rotate(1);
+        }
+    },
+    ROTATE_COUNTER_CLOCKWISE {
+        @Override
+        public void apply(Game game, int argument) {
+            game.rotate(-1);
+        }
+    },
+    /**
+     * The piece moved one row down, either by gravity or by the player.
+     */
+    MOVE_DOWN {
+        @Override
+        public void apply(Game game, int argument) {
+            game.moveDown();
+        }
+    },
+    DROP {
+        @Override
+        public void apply(Game game, int argument) {
+            game.dropDown();
+        }
+    },
+    LOCK {
+        @Override
+        public void apply(Game game, int argument) {
+            game.lock();
+        }
+    },
+    SPAWN {
+        @Override
+        public void apply(Game game, int argument) {
+            game.spawn();
+        }
+    },
+    /**
+     * Garbage rows have been inserted. The argument is the number of rows shifted left by 4 bits plus the column of the hole.
+     */
+    GARBAGE {
+        @Override
+        public void apply(Game game, int argument) {
+            game.insertGarbage(argument >>> 4, argument & 0xF);
+        }
+    };
+
+    static final ReplayEvent[] VALUES = values();
+
+    /**
+     * Applies this event with its argument to a game. Only {@link #GARBAGE} has an argument, all other events ignore it.
+     *
+     * @param game     The game.
+     * @param argument The argument of the event.
+     */
+    public abstract void apply(Game game, int argument);
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.replay;
+
+import tetris.engine.Playfield;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the events of a {@link Replay} one after the other.
+ * <p/>
+ * Malformed data causes an {@link IllegalStateException}. {@link Replay#read(java.io.InputStream)} reads all events once, so that a corrupt replay is rejected before it is played.
+ *
+ * @author Christian Schudt
+ */
+public final class ReplayReader {
+
+    private final byte[] data;
+
+    private int position;
+
+    private long frame;
+
+    /**
+     * The current token or -1, if there's none yet.
+     */
+    private long token = -1;
+
+    /**
+     * The number of times, the current token is still repeated.
+     */
+    private int repetitions;
+
+    private ReplayEvent next;
+
+    private int nextArgument;
+
+    private int argument;
+
+    ReplayReader(byte[] data) {
+        this.data = data;
+        advance();
+    }
+
+    /**
+     * Checks, if there are more events.
+     *
+     * @return True, if there are more events.
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Gets the frame of the next event, relative to the start of the game.
+     *
+     * @return The frame.
+     */
+    public long getFrame() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        return frame;
+    }
+
+    /**
+     * Gets the next event.
+     *
+     * @return The event.
+     */
+    public ReplayEvent next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        ReplayEvent event = next;
+        argument = nextArgument;
+        advance();
+        return event;
+    }
+
+    /**
+     * Gets the argument of the event, which has been returned by {@link #next()}.
+     *
+     * @return The argument or 0, if the event has no argument.
+     * @see ReplayEvent#apply(tetris.engine.Game, int)
+     */
+    public int getArgument() {
+        return argument;
+    }
+
+    private void advance() {
+        if (repetitions > 0) {
+            repetitions--;
+        } else if (position < data.length) {
+            long value = readVarint();
+            if (value == ReplayRecorder.REPEAT) {
+                // Only plain tokens are repeated. Garbage is never repeated, because of its argument.
+                if (token < 0 || (token & (1 << ReplayRecorder.TYPE_BITS) - 1) == ReplayRecorder.GARBAGE) {
+                    throw new IllegalStateException("Repetition without a token at position " + position);
+                }
+                long count = readVarint();
+                if (count < 2 || count > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Invalid repetition count " + count + " at position " + position);
+                }
+                repetitions = (int) count - 1;
+            } else if (value >= 0) {
+                token = value;
+            } else {
+                throw new IllegalStateException("Invalid token at position " + position);
+            }
+        } else {
+            next = null;
+            return;
+        }
+        frame += token >>> ReplayRecorder.TYPE_BITS;
+        int type = (int) (token & (1 << ReplayRecorder.TYPE_BITS) - 1);
+        if (type == ReplayRecorder.GARBAGE) {
+            long garbage = readVarint();
+            if (garbage >>> 4 < 1 || garbage >>> 4 >= Playfield.ROWS || (garbage & 0xF) >= Playfield.COLUMNS) {
+                throw new IllegalStateException("Invalid garbage " + garbage + " at position " + position);
+            }
+            next = ReplayEvent.GARBAGE;
+            nextArgument = (int) garbage;
+        } else if (type < ReplayEvent.GARBAGE.ordinal()) {
+            next = ReplayEvent.VALUES[type];
+            nextArgument = 0;
+        } else {
+            throw new IllegalStateException("Invalid event type " + type + " at position " + position);
+        }
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= data.length) {
+                throw new IllegalStateException("Truncated varint at position " + position);
+            }
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Too long varint at position " + position);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.replay;
+
+import tetris.engine.Game;
+import tetris.engine.GameListener;
+import tetris.engine.PieceType;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the games of a {@link Game} as {@link Replay}. It has to be added as listener to the game.
+ * <p/>
+ * A new recording starts, whenever the game is started. Every event is stamped with the current frame of the given clock.
+ * <p/>
+ * Each event is encoded as varint of the frames since the previous event and the event type.
+ * Runs of equal events at a constant interval, like the pieces falling by gravity, are encoded as a repetition.
+ * Garbage events are followed by their argument as varint.
+ *
+ * @author Christian Schudt
+ */
+public final class ReplayRecorder implements GameListener {
+
+    /**
+     * The number of bits of an event token, which encode the type of the event.
+     */
+    static final int TYPE_BITS = 4;
+
+    /**
+     * The event type, which repeats the previous token. It's followed by the number of repetitions.
+     */
+    static final int REPEAT = 8;
+
+    /**
+     * The event type of {@link ReplayEvent#GARBAGE}, which differs from its ordinal, because it would clash with {@link #REPEAT}. It's followed by the argument.
+     */
+    static final int GARBAGE = 9;
+
+    private final Game game;
+
+    private final LongSupplier frames;
+
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+
+    private String generator;
+
+    private long seed;
+
+    private long startFrame;
+
+    private long lastFrame;
+
+    private long lastToken = -1;
+
+    /**
+     * The number of times, the last token is repeated, but not yet written.
+     */
+    private int repetitions;
+
+    private int count;
+
+    /**
+     * Creates a recorder.
+     *
+     * @param game   The game, which is recorded.
+     * @param frames The clock, which returns the current frame (at {@link Replay#FRAMES_PER_SECOND}).
+     */
+    public ReplayRecorder(Game game, LongSupplier frames) {
+        this.game = game;
+        this.frames = frames;
+    }
+
+    /**
+     * Gets the replay of the current (or last) game.
+     *
+     * @return The replay or null, if no game has been started yet.
+     */
+    public Replay getReplay() {
+        if (generator == null) {
+            return null;
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream(events.size() + 10);
+        data.write(events.toByteArray(), 0, events.size());
+        writeRepetitions(data, repetitions);
+        return new Replay(generator, seed, data.toByteArray(), count, lastFrame - startFrame);
+    }
+
+    @Override
+    public void onSpawned(PieceType type, int x, int y) {
+        if (game.getPieces() == 1) {
+            // The first piece is spawned by Game.start(), so a new game has started.
+            generator = game.getPieceGenerator().getName();
+            seed = game.getSeed();
+            startFrame = frames.getAsLong();
+            lastFrame = startFrame;
+            lastToken = -1;
+            repetitions = 0;
+            count = 0;
+            events.reset();
+        } else {
+            record(ReplayEvent.SPAWN);
+        }
+    }
+
+    @Override
+    public void onMoved(int direction, int x) {
+        record(direction < 0 ? ReplayEvent.MOVE_LEFT : ReplayEvent.MOVE_RIGHT);
+    }
+
+    @Override
+    public void onRotated(int direction) {
+        record(direction < 0 ? ReplayEvent.ROTATE_COUNTER_CLOCKWISE : ReplayEvent.ROTATE_CLOCKWISE);
+    }
+
+    @Override
+    public void onMovedDown(int y) {
+        record(ReplayEvent.MOVE_DOWN);
+    }
+
+    @Override
+    public void onDropped(int y) {
+        record(ReplayEvent.DROP);
+    }
+
+    @Override
+    public void onInvalidMove() {
+        // Does not change the game.
+    }
+
+    @Override
+    public void onLocked(PieceType type, int rotation, int x, int y) {
+        record(ReplayEvent.LOCK);
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+        // Is a consequence of the lock.
+    }
+
+    @Override
+    public void onGarbageAdded(int rows, int hole) {
+        if (generator == null) {
+            return;
+        }
+        long frame = frames.getAsLong();
+        writeRepetitions(events, repetitions);
+        repetitions = 0;
+        // The argument follows, so the token must not be repeated.
+        lastToken = -1;
+        writeVarint(events, (frame - lastFrame) << TYPE_BITS | GARBAGE);
+        writeVarint(events, rows << 4 | hole);
+        lastFrame = frame;
+        count++;
+    }
+
+    @Override
+    public void onGameOver() {
+        // The game is over, when the lock failed.
+        record(ReplayEvent.LOCK);
+    }
+
+    private void record(ReplayEvent event) {
+        if (generator == null) {
+            return;
+        }
+        long frame = frames.getAsLong();
+        long token = (frame - lastFrame) << TYPE_BITS | event.ordinal();
+        lastFrame = frame;
+        count++;
+        if (token == lastToken) {
+            repetitions++;
+        } else {
+            writeRepetitions(events, repetitions);
+            repetitions = 0;
+            lastToken = token;
+            writeVarint(events, token);
+        }
+    }
+
+    private void writeRepetitions(ByteArrayOutputStream out, int repetitions) {
+        if (repetitions == 1) {
+            writeVarint(out, lastToken);
+        } else if (repetitions > 1) {
+            writeVarint(out, REPEAT);
+            writeVarint(out, repetitions);
+        }
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
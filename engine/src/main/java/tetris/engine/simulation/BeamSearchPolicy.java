@@ -0,0 +1,389 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Game;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A policy, which looks ahead at the waiting pieces by a beam search.
+ * <p/>
+ * All placements of the current piece are rated by the {@link Heuristic}. The best placements (the beam) are expanded by all placements of the next waiting piece and so on.
+ * The current piece is placed, where the best placement of the last piece originated from.
+ * <p/>
+ * Optionally the rating of the final beam takes the piece after the waiting pieces into account,
+ * which is unknown: It is the expected rating, i.e. the average of the best placements of all piece types (expectimax).
+ * <p/>
+ * If a fork/join pool is given, the placements are evaluated in parallel.
+ * Each thread caches the expected ratings in its own {@link TranspositionTable}, so that the expectation of a playfield is only calculated once.
+ *
+ * @author Christian Schudt
+ */
+public final class BeamSearchPolicy implements MovePolicy {
+
+    /**
+     * The rating of an unknown piece, which cannot spawn anymore.
+     */
+    private static final double GAME_OVER_RATING = -1000;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final ThreadLocal<Evaluator> evaluators = new ThreadLocal<Evaluator>() {
+        @Override
+        protected Evaluator initialValue() {
+            return new Evaluator();
+        }
+    };
+
+    private final int beamWidth;
+
+    private final int lookahead;
+
+    private final ForkJoinPool pool;
+
+    private boolean expectimax;
+
+    /**
+     * Creates a policy with a beam width of 8, which looks ahead one piece and evaluates in the calling thread.
+     */
+    public BeamSearchPolicy() {
+        this(8, 1, null);
+    }
+
+    /**
+     * Creates a policy.
+     *
+     * @param beamWidth The number of placements, which are expanded by the next piece.
+     * @param lookahead The maximal number of waiting pieces, which are taken into account.
+     * @param pool      The pool, which evaluates the placements in parallel or null, to evaluate them in the calling thread.
+     */
+    public BeamSearchPolicy(int beamWidth, int lookahead, ForkJoinPool pool) {
+        if (beamWidth < 1 || lookahead < 0) {
+            throw new IllegalArgumentException("beamWidth must be positive and lookahead must not be negative.");
+        }
+        this.beamWidth = beamWidth;
+        this.lookahead = lookahead;
+        this.pool = pool;
+    }
+
+    /**
+     * Takes the unknown piece after the waiting pieces into account, which is expensive. By default, this is off.
+     *
+     * @param expectimax True, to rate the final beam by the expected rating of the unknown piece.
+     */
+    public void setExpectimax(boolean expectimax) {
+        this.expectimax = expectimax;
+    }
+
+    @Override
+    public void play(Game game) {
+        Placement placement = plan(game);
+        if (placement == null) {
+            return;
+        }
+        int rotations = (placement.getRotation() - game.getRotation()) & 3;
+        if (rotations == 3) {
+            game.rotate(-1);
+        } else {
+            for (int i = 0; i < rotations; i++) {
+                game.rotate(1);
+            }
+        }
+        while (game.getX() != placement.getX() && game.move(Integer.signum(placement.getX() - game.getX()))) {
+        }
+    }
+
+    /**
+     * Chooses the placement of the current piece. The game is only read.
+     * <p/>
+     * The placements are searched from the current position of the piece by rotating it there and moving it to the left and right.
+     *
+     * @param game The game.
+     * @return The placement or null, if there is no current piece.
+     */
+    public Placement plan(Game game) {
+        PieceType current = game.getCurrentPiece();
+        if (current == null) {
+            return null;
+        }
+        int depth = 1 + Math.min(lookahead, game.getWaitingPieceCount());
+        List<Node> beam = Collections.singletonList(new Node(game.getPlayfield()));
+        for (int i = 0; i < depth; i++) {
+            PieceType type = i == 0 ? current : game.getWaitingPiece(i - 1);
+            int x = i == 0 ? game.getX() : spawnX(type);
+            int y = i == 0 ? game.getY() : 0;
+            // The playfields of the last piece are only needed for the expectimax rating.
+            boolean keepPlayfields = i < depth - 1 || expectimax;
+
+            List<Callable<List<Node>>> tasks = new ArrayList<>();
+            for (Node node : beam) {
+                for (int rotation = 0; rotation < PieceType.ROTATIONS; rotation++) {
+                    tasks.add(new Expansion(node, type, rotation, x, y, keepPlayfields));
+                }
+            }
+            List<Node> children = new ArrayList<>();
+            for (List<Node> result : invokeAll(tasks)) {
+                children.addAll(result);
+            }
+            if (children.isEmpty()) {
+                // None of the pieces fits anymore, so the game will be over anyway.
+                break;
+            }
+            Collections.sort(children);
+            beam = children.subList(0, Math.min(beamWidth, children.size()));
+        }
+
+        if (expectimax && beam.get(0).rotation >= 0) {
+            List<Callable<Double>> tasks = new ArrayList<>();
+            for (Node node : beam) {
+                tasks.add(new Expectation(node));
+            }
+            List<Double> expectations = invokeAll(tasks);
+            List<Node> rated = new ArrayList<>();
+            for (int i = 0; i < beam.size(); i++) {
+                Node node = beam.get(i);
+                rated.add(new Node(node, null, node.score, node.score + expectations.get(i)));
+            }
+            Collections.sort(rated);
+            beam = rated;
+        }
+
+        Node best = beam.get(0);
+        if (best.rotation < 0) {
+            // Not even the current piece fits. Leave it where it is.
+            return new Placement(game.getRotation(), game.getX(), game.getY(), GAME_OVER_RATING);
+        }
+        return new Placement(best.rotation, best.x, best.y, best.rating);
+    }
+
+    private <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            if (pool == null || tasks.size() == 1) {
+                for (Callable<T> task : tasks) {
+                    results.add(task.call());
+                }
+            } else {
+                for (Future<T> future : pool.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return results;
+    }
+
+    private static int spawnX(PieceType type) {
+        return (Playfield.COLUMNS - type.getSize()) / 2;
+    }
+
+    /**
+     * A playfield in the search tree, which remembers the placement of the current piece, it originated from.
+     */
+    private static final class Node implements Comparable<Node> {
+
+        private final Playfield playfield;
+
+        private final int rotation;
+
+        private final int x;
+
+        private final int y;
+
+        /**
+         * The rating of the eliminated rows on the path to this node.
+         */
+        private final double score;
+
+        /**
+         * The score plus the rating of the playfield.
+         */
+        private final double rating;
+
+        private Node(Playfield playfield) {
+            this(playfield, -1, 0, 0, 0, 0);
+        }
+
+        private Node(Node parent, Playfield playfield, double score, double rating) {
+            this(playfield, parent.rotation, parent.x, parent.y, score, rating);
+        }
+
+        private Node(Playfield playfield, int rotation, int x, int y, double score, double rating) {
+            this.playfield = playfield;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.score = score;
+            this.rating = rating;
+        }
+
+        @Override
+        public int compareTo(Node o) {
+            // Descending, so that the best node comes first.
+            return Double.compare(o.rating, rating);
+        }
+    }
+
+    /**
+     * The state of a thread, which evaluates placements.
+     */
+    private static final class Evaluator {
+
+        private final Heuristic heuristic = new Heuristic();
+
+        private final TranspositionTable expectations = new TranspositionTable(12);
+
+        private final Playfield scratch = new Playfield();
+
+        private final Playfield lookahead = new Playfield();
+
+        /**
+         * Tries all placements of a piece in one rotation and adds them to the list.
+         * The piece is moved to the left and right from the spawn position, as long as it is not blocked.
+         */
+        private void expand(Node node, PieceType type, int rotation, int spawnX, int spawnY, boolean keepPlayfields, List<Node> children) {
+            Playfield playfield = node.playfield;
+            PieceShape shape = type.getShape(rotation);
+            if (playfield.intersects(shape, spawnX, spawnY)) {
+                return;
+            }
+            for (int direction = -1; direction <= 1; direction += 2) {
+                for (int x = direction < 0 ? spawnX : spawnX + 1; !playfield.intersects(shape, x, spawnY); x += direction) {
+                    scratch.copyFrom(playfield);
+                    int y = scratch.drop(shape, x, spawnY);
+                    scratch.merge(type, shape, x, y);
+                    int rows = Integer.bitCount(scratch.eliminateRows(y + shape.getTop(), y + shape.getTop() + shape.getHeight() - 1));
+                    double score = node.score + Heuristic.rateRows(rows);
+                    double rating = score + heuristic.rate(scratch);
+                    Playfield copy = null;
+                    if (keepPlayfields) {
+                        copy = new Playfield();
+                        copy.copyFrom(scratch);
+                    }
+                    if (node.rotation < 0) {
+                        children.add(new Node(copy, rotation, x, y, score, rating));
+                    } else {
+                        children.add(new Node(node, copy, score, rating));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Calculates the average rating of the best placement of each piece type.
+         */
+        private double expect(Playfield playfield) {
+            long hash = TranspositionTable.hash(playfield);
+            double expectation = expectations.get(hash);
+            if (!Double.isNaN(expectation)) {
+                return expectation;
+            }
+            double sum = 0;
+            for (PieceType type : PIECE_TYPES) {
+                int spawnX = spawnX(type);
+                double best = GAME_OVER_RATING;
+                for (int rotation = 0; rotation < PieceType.ROTATIONS; rotation++) {
+                    PieceShape shape = type.getShape(rotation);
+                    if (playfield.intersects(shape, spawnX, 0)) {
+                        continue;
+                    }
+                    for (int direction = -1; direction <= 1; direction += 2) {
+                        for (int x = direction < 0 ? spawnX : spawnX + 1; !playfield.intersects(shape, x, 0); x += direction) {
+                            lookahead.copyFrom(playfield);
+                            int y = lookahead.drop(shape, x, 0);
+                            lookahead.merge(type, shape, x, y);
+                            int rows = Integer.bitCount(lookahead.eliminateRows(y + shape.getTop(), y + shape.getTop() + shape.getHeight() - 1));
+                            best = Math.max(best, Heuristic.rateRows(rows) + heuristic.rate(lookahead));
+                        }
+                    }
+                }
+                sum += best;
+            }
+            expectation = sum / PIECE_TYPES.length;
+            expectations.put(hash, expectation);
+            return expectation;
+        }
+    }
+
+    private final class Expansion implements Callable<List<Node>> {
+
+        private final Node node;
+
+        private final PieceType type;
+
+        private final int rotation;
+
+        private final int x;
+
+        private final int y;
+
+        private final boolean keepPlayfields;
+
+        private Expansion(Node node, PieceType type, int rotation, int x, int y, boolean keepPlayfields) {
+            this.node = node;
+            this.type = type;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.keepPlayfields = keepPlayfields;
+        }
+
+        @Override
+        public List<Node> call() {
+            List<Node> children = new ArrayList<>();
+            evaluators.get().expand(node, type, rotation, x, y, keepPlayfields, children);
+            return children;
+        }
+    }
+
+    private final class Expectation implements Callable<Double> {
+
+        private final Node node;
+
+        private Expectation(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public Double call() {
+            return evaluators.get().expect(node.playfield);
+        }
+    }
+}
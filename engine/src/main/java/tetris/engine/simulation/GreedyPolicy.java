@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Game;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+
+/**
+ * A policy, which tries all rotations and columns of the current piece and chooses the one with the best resulting playfield.
+ * The playfield is rated by the {@link Heuristic}.
+ * <p/>
+ * The piece is rotated at the spawn position, as the game has no wall kicks. Rotation 1 and 3 are a single clockwise or counter-clockwise turn,
+ * rotation 2 turns twice, either way, so that the rotation in between must fit, too.
+ * <p/>
+ * Instances are not thread-safe.
+ *
+ * @author Christian Schudt
+ */
+public final class GreedyPolicy implements MovePolicy {
+
+    /**
+     * The playfield, on which the placements are tried.
+     */
+    private final Playfield scratch = new Playfield();
+
+    private final Heuristic heuristic = new Heuristic();
+
+    @Override
+    public void play(Game game) {
+        Playfield playfield = game.getPlayfield();
+        PieceType type = game.getCurrentPiece();
+        int spawnX = game.getX();
+        int spawnY = game.getY();
+
+        double bestRating = Double.NEGATIVE_INFINITY;
+        int bestRotation = 0;
+        int bestX = spawnX;
+
+        boolean clockwise = !playfield.intersects(type.getShape(1), spawnX, spawnY);
+        boolean counterClockwise = !playfield.intersects(type.getShape(3), spawnX, spawnY);
+        for (int rotation = 0; rotation < PieceType.ROTATIONS; rotation++) {
+            PieceShape shape = type.getShape(rotation);
+            if (playfield.intersects(shape, spawnX, spawnY) || rotation == 2 && !clockwise && !counterClockwise) {
+                continue;
+            }
+            for (int direction = -1; direction <= 1; direction += 2) {
+                // Walk to the left and to the right, as long as the piece is not blocked.
+                for (int x = direction < 0 ? spawnX : spawnX + 1; !playfield.intersects(shape, x, spawnY); x += direction) {
+                    scratch.copyFrom(playfield);
+                    int y = scratch.drop(shape, x, spawnY);
+                    scratch.merge(type, shape, x, y);
+                    int rows = Integer.bitCount(scratch.eliminateRows(y + shape.getTop(), y + shape.getTop() + shape.getHeight() - 1));
+                    double rating = heuristic.rate(scratch) + Heuristic.rateRows(rows);
+                    if (rating > bestRating) {
+                        bestRating = rating;
+                        bestRotation = rotation;
+                        bestX = x;
+                    }
+                }
+            }
+        }
+
+        if (bestRotation == 3) {
+            game.rotate(-1);
+        } else {
+            for (int i = 0; i < bestRotation; i++) {
+                game.rotate(clockwise ? 1 : -1);
+            }
+        }
+        while (game.getX() != bestX && game.move(Integer.signum(bestX - game.getX()))) {
+        }
+    }
+}
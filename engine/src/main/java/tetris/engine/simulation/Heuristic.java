@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Playfield;
+
+/**
+ * Rates a playfield by its aggregate height, holes and bumpiness. The eliminated rows are rated separately by {@link #rateRows(int)}.
+ * <p/>
+ * The weights are the ones found by a genetic algorithm by Yiyuan Lee ("Tetris AI - The (Near) Perfect Bot").
+ * <p/>
+ * The column statistics are maintained by the playfield, so that a rating is cheap.
+ *
+ * @author Christian Schudt
+ */
+public final class Heuristic {
+
+    private static final double HEIGHT_WEIGHT = -0.510066;
+
+    private static final double ROWS_WEIGHT = 0.760666;
+
+    private static final double HOLES_WEIGHT = -0.35663;
+
+    private static final double BUMPINESS_WEIGHT = -0.184483;
+
+    /**
+     * Rates the eliminated rows of a placement.
+     *
+     * @param rows The number of eliminated rows.
+     * @return The rating.
+     */
+    public static double rateRows(int rows) {
+        return ROWS_WEIGHT * rows;
+    }
+
+    /**
+     * Rates a playfield. The higher the rating, the better.
+     *
+     * @param playfield The playfield.
+     * @return The rating, which is 0 for an empty playfield and negative otherwise.
+     */
+    public double rate(Playfield playfield) {
+        int bumpiness = 0;
+        for (int column = 1; column < Playfield.COLUMNS; column++) {
+            bumpiness += Math.abs(playfield.getColumnHeight(column) - playfield.getColumnHeight(column - 1));
+        }
+        return HEIGHT_WEIGHT * playfield.getAggregateHeight() + HOLES_WEIGHT * playfield.getHoles() + BUMPINESS_WEIGHT * bumpiness;
+    }
+}
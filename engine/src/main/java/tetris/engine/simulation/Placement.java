@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+/**
+ * The target of a piece, which has been chosen by a policy.
+ *
+ * @author Christian Schudt
+ */
+public final class Placement {
+
+    private final int rotation;
+
+    private final int x;
+
+    private final int y;
+
+    private final double rating;
+
+    /**
+     * @param rotation The rotation of the piece.
+     * @param x        The X position of the piece's matrix.
+     * @param y        The Y position of the piece's matrix, after it has been dropped.
+     * @param rating   The rating of the placement.
+     */
+    public Placement(int rotation, int x, int y, double rating) {
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.rating = rating;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the rating, which includes the lookahead of the policy. The higher, the better.
+     *
+     * @return The rating.
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return "rotation " + rotation + ", x " + x + ", y " + y + ", rating " + rating;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Game;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+import tetris.engine.replay.ReplayEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds all placements of a piece, which are reachable by moving, rotating and moving down, including tucks under overhangs and spins.
+ * <p/>
+ * The search is a breadth-first search over the states (x, y, rotation) of the piece. Each state is visited at most once and
+ * each state is checked at most once for intersection with the playfield, which is remembered in bit sets.
+ * A placement is the lowest position of a state, i.e. where the piece lands, when it is dropped.
+ * Because the states are visited in the order of their distance, the first state, which lands at a placement, yields the shortest input sequence for it:
+ * The inputs to reach the state, followed by {@link ReplayEvent#DROP}.
+ * <p/>
+ * Symmetric rotations (e.g. of I, S, Z and O) are different placements, even if they occupy the same cells.
+ * Note that locking a piece in row 0 ends the game.
+ * <p/>
+ * Instances are reusable, but not thread-safe. The results are valid until the next search.
+ *
+ * @author Christian Schudt
+ */
+public final class PlacementSearch {
+
+    /**
+     * The X position of a piece's matrix can be negative, if its left columns are empty.
+     */
+    private static final int X_OFFSET = 3;
+
+    private static final int X_RANGE = Playfield.COLUMNS + X_OFFSET;
+
+    private static final int STATES = PieceType.ROTATIONS * Playfield.ROWS * X_RANGE;
+
+    private static final ReplayEvent[] INPUTS = {ReplayEvent.MOVE_LEFT, ReplayEvent.MOVE_RIGHT, ReplayEvent.ROTATE_CLOCKWISE, ReplayEvent.ROTATE_COUNTER_CLOCKWISE, ReplayEvent.MOVE_DOWN};
+
+    private final long[] visited = new long[(STATES + 63) >>> 6];
+
+    private final long[] checked = new long[(STATES + 63) >>> 6];
+
+    private final long[] free = new long[(STATES + 63) >>> 6];
+
+    private final long[] landed = new long[(STATES + 63) >>> 6];
+
+    /**
+     * The states, whose landing state is known.
+     */
+    private final long[] dropped = new long[(STATES + 63) >>> 6];
+
+    private final int[] landings = new int[STATES];
+
+    private final int[] queue = new int[STATES];
+
+    private final int[] parents = new int[STATES];
+
+    /**
+     * The index of the input in {@link #INPUTS}, which led to a state.
+     */
+    private final byte[] inputs = new byte[STATES];
+
+    private final int[] placements = new int[STATES];
+
+    /**
+     * The state, from which a placement has been dropped.
+     */
+    private final int[] origins = new int[STATES];
+
+    private Playfield playfield;
+
+    private PieceType type;
+
+    private int start;
+
+    private int count;
+
+    /**
+     * Finds all placements of the current piece of a game, starting at its current position.
+     *
+     * @param game The game.
+     * @return The number of placements, which is 0 if there is no current piece.
+     */
+    public int search(Game game) {
+        if (game.getCurrentPiece() == null) {
+            count = 0;
+            return 0;
+        }
+        return search(game.getPlayfield(), game.getCurrentPiece(), game.getRotation(), game.getX(), game.getY());
+    }
+
+    /**
+     * Finds all placements of a piece.
+     *
+     * @param playfield The playfield, which is only read.
+     * @param type      The piece type.
+     * @param rotation  The rotation, in which the piece starts.
+     * @param x         The X position, where the piece's matrix starts.
+     * @param y         The Y position, where the piece's matrix starts.
+     * @return The number of placements, which is 0 if the piece does not fit at its start position.
+     */
+    public int search(Playfield playfield, PieceType type, int rotation, int x, int y) {
+        this.playfield = playfield;
+        this.type = type;
+        Arrays.fill(visited, 0);
+        Arrays.fill(checked, 0);
+        Arrays.fill(landed, 0);
+        Arrays.fill(dropped, 0);
+        count = 0;
+        if (y < 0 || !isFree(rotation, x, y)) {
+            return 0;
+        }
+        start = state(rotation, x, y);
+        set(visited, start);
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int state = queue[head++];
+            int r = rotationOf(state);
+            int sx = xOf(state);
+            int sy = yOf(state);
+
+            // Drop the piece. The first state, which lands at a placement, is the nearest one.
+            int placement = drop(r, sx, sy);
+            if (!isSet(landed, placement)) {
+                set(landed, placement);
+                placements[count] = placement;
+                origins[count] = state;
+                count++;
+            }
+
+            tail = enqueue(state, r, sx - 1, sy, 0, tail);
+            tail = enqueue(state, r, sx + 1, sy, 1, tail);
+            tail = enqueue(state, (r + 1) & PieceType.ROTATIONS - 1, sx, sy, 2, tail);
+            tail = enqueue(state, (r - 1) & PieceType.ROTATIONS - 1, sx, sy, 3, tail);
+            tail = enqueue(state, r, sx, sy + 1, 4, tail);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of placements of the last search.
+     *
+     * @return The number of placements.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the rotation of a placement.
+     *
+     * @param placement The index of the placement.
+     * @return The rotation.
+     */
+    public int getRotation(int placement) {
+        return rotationOf(placements[placement]);
+    }
+
+    /**
+     * Gets the X position of a placement.
+     *
+     * @param placement The index of the placement.
+     * @return The X position of the piece's matrix.
+     */
+    public int getX(int placement) {
+        return xOf(placements[placement]);
+    }
+
+    /**
+     * Gets the Y position of a placement.
+     *
+     * @param placement The index of the placement.
+     * @return The Y position of the piece's matrix.
+     */
+    public int getY(int placement) {
+        return yOf(placements[placement]);
+    }
+
+    /**
+     * Gets the shortest input sequence, which moves the piece from its start position to a placement.
+     * The last input is always {@link ReplayEvent#DROP}, after which the piece can be locked.
+     *
+     * @param placement The index of the placement.
+     * @return The inputs.
+     */
+    public List<ReplayEvent> getInputs(int placement) {
+        List<ReplayEvent> path = new ArrayList<>();
+        path.add(ReplayEvent.DROP);
+        for (int state = origins[placement]; state != start; state = parents[state]) {
+            path.add(INPUTS[inputs[state]]);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Adds a state to the queue, if the piece fits there and the state has not been visited yet.
+     *
+     * @param parent The state, from which the input has been made.
+     * @param input  The index of the input in {@link #INPUTS}.
+     * @param tail   The end of the queue.
+     * @return The new end of the queue.
+     */
+    private int enqueue(int parent, int rotation, int x, int y, int input, int tail) {
+        if (isFree(rotation, x, y)) {
+            int state = state(rotation, x, y);
+            if (!isSet(visited, state)) {
+                set(visited, state);
+                parents[state] = parent;
+                inputs[state] = (byte) input;
+                queue[tail++] = state;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Calculates the state, where the piece lands, when it is dropped. The landing states are remembered for all states on the way down,
+     * so that each column is only scanned once.
+     */
+    private int drop(int rotation, int x, int y) {
+        int landing = y;
+        while (!isSet(dropped, state(rotation, x, landing)) && isFree(rotation, x, landing + 1)) {
+            landing++;
+        }
+        int result = isSet(dropped, state(rotation, x, landing)) ? landings[state(rotation, x, landing)] : state(rotation, x, landing);
+        for (int i = y; i <= landing; i++) {
+            int state = state(rotation, x, i);
+            set(dropped, state);
+            landings[state] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Checks, if the piece fits at a position. The result is remembered, so that the playfield is checked only once per state.
+     */
+    private boolean isFree(int rotation, int x, int y) {
+        if (x < -X_OFFSET || x >= Playfield.COLUMNS || y >= Playfield.ROWS) {
+            return false;
+        }
+        int state = state(rotation, x, y);
+        if (!isSet(checked, state)) {
+            set(checked, state);
+            PieceShape shape = type.getShape(rotation);
+            if (playfield.intersects(shape, x, y)) {
+                free[state >>> 6] &= ~(1L << state);
+            } else {
+                set(free, state);
+            }
+        }
+        return isSet(free, state);
+    }
+
+    private static int state(int rotation, int x, int y) {
+        return (rotation * Playfield.ROWS + y) * X_RANGE + x + X_OFFSET;
+    }
+
+    private static int rotationOf(int state) {
+        return state / (Playfield.ROWS * X_RANGE);
+    }
+
+    private static int xOf(int state) {
+        return state % X_RANGE - X_OFFSET;
+    }
+
+    private static int yOf(int state) {
+        return state / X_RANGE % Playfield.ROWS;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
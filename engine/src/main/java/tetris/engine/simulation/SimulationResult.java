@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregated statistics of a simulation run.
+ *
+ * @author Christian Schudt
+ * @see Simulator#run(int, long)
+ */
+public final class SimulationResult {
+
+    private final long elapsedNanos;
+
+    private final long[] clears;
+
+    private final int[] scores;
+
+    private final int[] pieces;
+
+    private final int[] rows;
+
+    private int[] sortedScores;
+
+    SimulationResult(long elapsedNanos, long[] clears, int[] scores, int[] pieces, int[] rows) {
+        this.elapsedNanos = elapsedNanos;
+        this.clears = clears;
+        this.scores = scores;
+        this.pieces = pieces;
+        this.rows = rows;
+    }
+
+    /**
+     * Gets the number of played games.
+     *
+     * @return The number of games.
+     */
+    public int getGames() {
+        return scores.length;
+    }
+
+    /**
+     * Gets the wall clock time of the run.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return scores.length * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double getPiecesPerSecond() {
+        return getTotalPieces() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Gets how often the given number of rows has been eliminated at once.
+     *
+     * @param rows The number of rows (1-4).
+     * @return The number of line clears.
+     */
+    public long getClears(int rows) {
+        return clears[rows];
+    }
+
+    /**
+     * Gets the score of a single game.
+     *
+     * @param game The index of the game, which also determines its seed.
+     * @return The score.
+     */
+    public int getScore(int game) {
+        return scores[game];
+    }
+
+    /**
+     * Gets the number of pieces a single game survived.
+     *
+     * @param game The index of the game.
+     * @return The number of pieces.
+     */
+    public int getPieces(int game) {
+        return pieces[game];
+    }
+
+    /**
+     * Gets the number of rows, which have been eliminated in a single game.
+     *
+     * @param game The index of the game.
+     * @return The number of rows.
+     */
+    public int getRows(int game) {
+        return rows[game];
+    }
+
+    public long getTotalPieces() {
+        return sum(pieces);
+    }
+
+    public long getTotalRows() {
+        return sum(rows);
+    }
+
+    public double getMeanScore() {
+        return sum(scores) / (double) scores.length;
+    }
+
+    public double getMeanPieces() {
+        return sum(pieces) / (double) pieces.length;
+    }
+
+    public double getMeanRows() {
+        return sum(rows) / (double) rows.length;
+    }
+
+    /**
+     * Gets a percentile of the score distribution.
+     *
+     * @param percentile The percentile (0-100).
+     * @return The score, which is reached or exceeded by (100 - percentile) percent of the games.
+     */
+    public synchronized int getScorePercentile(double percentile) {
+        if (sortedScores == null) {
+            sortedScores = scores.clone();
+            Arrays.sort(sortedScores);
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedScores.length) - 1;
+        return sortedScores[Math.max(0, Math.min(index, sortedScores.length - 1))];
+    }
+
+    private static long sum(int[] values) {
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games in %.3f s (%.1f games/s, %.0f pieces/s)%n"
+                        + "pieces: %.1f mean%n"
+                        + "rows:   %.1f mean, %d singles, %d doubles, %d triples, %d tetrises%n"
+                        + "score:  %.1f mean, %d p10, %d p50, %d p90, %d p99, %d max",
+                getGames(), elapsedNanos / 1e9, getGamesPerSecond(), getPiecesPerSecond(),
+                getMeanPieces(),
+                getMeanRows(), clears[1], clears[2], clears[3], clears[4],
+                getMeanScore(), getScorePercentile(10), getScorePercentile(50), getScorePercentile(90), getScorePercentile(99), getScorePercentile(100));
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Game;
+import tetris.engine.PieceGenerator;
+import tetris.engine.UniformGenerator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many seeded games in parallel, using a {@link MovePolicy}.
+ * <p/>
+ * Game i of a run with seed s always gets the same sequence of pieces, so that runs are reproducible.
+ *
+ * @author Christian Schudt
+ */
+public final class Simulator {
+
+    /**
+     * The number of tasks per thread, in order to balance games of different length.
+     */
+    private static final int TASKS_PER_THREAD = 8;
+
+    private final Supplier<? extends MovePolicy> policies;
+
+    private final ForkJoinPool pool;
+
+    private Supplier<? extends PieceGenerator> generators = new Supplier<PieceGenerator>() {
+        @Override
+        public PieceGenerator get() {
+            return new UniformGenerator();
+        }
+    };
+
+    private int pieceLimit = Integer.MAX_VALUE;
+
+    /**
+     * Creates a simulator, which uses the common fork/join pool.
+     *
+     * @param policies Creates the policies. Each policy is only used by one thread at a time.
+     */
+    public Simulator(Supplier<? extends MovePolicy> policies) {
+        this(policies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param policies Creates the policies. Each policy is only used by one thread at a time.
+     * @param pool     The pool, which plays the games.
+     */
+    public Simulator(Supplier<? extends MovePolicy> policies, ForkJoinPool pool) {
+        this.policies = policies;
+        this.pool = pool;
+    }
+
+    /**
+     * Limits the number of pieces per game, because a good policy might never lose.
+     *
+     * @param pieceLimit The maximal number of pieces per game.
+     */
+    public void setPieceLimit(int pieceLimit) {
+        this.pieceLimit = pieceLimit;
+    }
+
+    /**
+     * Sets the piece generators, which choose the pieces. By default, pieces are chosen uniformly.
+     *
+     * @param generators Creates the generators. Each generator is only used by one thread at a time.
+     */
+    public void setGenerators(Supplier<? extends PieceGenerator> generators) {
+        this.generators = generators;
+    }
+
+    /**
+     * Plays the games and waits until all of them are over.
+     *
+     * @param games The number of games.
+     * @param seed  The seed, from which the seeds of the games are derived.
+     * @return The result.
+     */
+    public SimulationResult run(int games, long seed) {
+        int[] scores = new int[games];
+        int[] pieces = new int[games];
+        int[] rows = new int[games];
+        int threshold = Math.max(1, games / (pool.getParallelism() * TASKS_PER_THREAD));
+
+        long start = System.nanoTime();
+        long[] clears = pool.invoke(new SimulationTask(0, games, threshold, seed, scores, pieces, rows));
+        return new SimulationResult(System.nanoTime() - start, clears, scores, pieces, rows);
+    }
+
+    /**
+     * Gets the seed of a single game.
+     *
+     * @param seed The seed of the run.
+     * @param game The index of the game.
+     * @return The seed of the game.
+     */
+    public static long seed(long seed, int game) {
+        // Spread the seeds, so that neighboring games are not correlated.
+        return seed ^ game * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Plays a range of games. Returns the number of singles, doubles, triples and tetrises (at index 1-4).
+     */
+    private final class SimulationTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int threshold;
+
+        private final long seed;
+
+        private final int[] scores;
+
+        private final int[] pieces;
+
+        private final int[] rows;
+
+        private SimulationTask(int from, int to, int threshold, long seed, int[] scores, int[] pieces, int[] rows) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.seed = seed;
+            this.scores = scores;
+            this.pieces = pieces;
+            this.rows = rows;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                SimulationTask left = new SimulationTask(from, middle, threshold, seed, scores, pieces, rows);
+                SimulationTask right = new SimulationTask(middle, to, threshold, seed, scores, pieces, rows);
+                left.fork();
+                long[] clears = right.compute();
+                long[] leftClears = left.join();
+                for (int i = 0; i < clears.length; i++) {
+                    clears[i] += leftClears[i];
+                }
+                return clears;
+            }
+
+            long[] clears = new long[5];
+            MovePolicy policy = policies.get();
+            PieceGenerator generator = generators.get();
+            for (int i = from; i < to; i++) {
+                Game game = new Game(1, generator);
+                game.start(seed(seed, i));
+                while (true) {
+                    policy.play(game);
+                    game.dropDown();
+                    int eliminated = game.lock();
+                    if (game.isGameOver()) {
+                        break;
+                    }
+                    clears[Integer.bitCount(eliminated)]++;
+                    // Spawning counts the next piece, so stop before it, when the limit is reached.
+                    if (game.getPieces() >= pieceLimit) {
+                        break;
+                    }
+                    game.spawn();
+                }
+                scores[i] = game.getScore();
+                pieces[i] = game.getPieces();
+                rows[i] = game.getRows();
+            }
+            return clears;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import tetris.engine.Playfield;
+
+import java.util.Arrays;
+
+/**
+ * Caches the ratings of playfields, which have already been evaluated.
+ * <p/>
+ * The same playfield is reached by different placements (e.g. the symmetric rotations of I, S, Z and O) and
+ * the playfields, which were evaluated as lookahead for one piece, are evaluated again for the next piece.
+ * This only pays off for expensive ratings like expectations, because the playfield maintains the statistics for a single rating.
+ * <p/>
+ * The table is direct-mapped: Each hash has exactly one slot and a newer entry replaces an older one.
+ * Two playfields with the same 64 bit hash are considered equal.
+ * <p/>
+ * Instances are not thread-safe.
+ *
+ * @author Christian Schudt
+ */
+public final class TranspositionTable {
+
+    private final long[] keys;
+
+    private final double[] values;
+
+    private final int mask;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Creates a table.
+     *
+     * @param bits The size of the table as power of two, e.g. 16 for 65536 entries.
+     */
+    public TranspositionTable(int bits) {
+        keys = new long[1 << bits];
+        values = new double[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Calculates the hash of a playfield. The hash is never 0, which marks an empty slot.
+     *
+     * @param playfield The playfield.
+     * @return The hash.
+     */
+    public static long hash(Playfield playfield) {
+        long hash = 0;
+        for (int row = 0; row < Playfield.ROWS; row++) {
+            hash = (hash ^ playfield.getRow(row)) * 0x9E3779B97F4A7C15L;
+        }
+        hash ^= hash >>> 29;
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * Gets a cached rating.
+     *
+     * @param hash The hash of the playfield.
+     * @return The rating or {@link Double#NaN}, if the playfield has not been rated yet.
+     */
+    public double get(long hash) {
+        int index = (int) hash & mask;
+        if (keys[index] == hash) {
+            hits++;
+            return values[index];
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    /**
+     * Caches a rating.
+     *
+     * @param hash   The hash of the playfield.
+     * @param rating The rating.
+     */
+    public void put(long hash, double rating) {
+        int index = (int) hash & mask;
+        keys[index] = hash;
+        values[index] = rating;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Gets the number of lookups, which found a cached rating.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups, which found no cached rating.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A connection to a {@link VersusServer}.
+ * <p/>
+ * The calling thread only appends its messages to a buffer, a daemon thread writes them to the server, so that the thread of the game never waits for the network.
+ * Another daemon thread receives the messages of the server and passes them to the listener by means of the executor, e.g. to process them on the thread of the game.
+ *
+ * @author Christian Schudt
+ */
+public final class VersusClient implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(VersusClient.class.getName());
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The maximal size of the buffered messages. If the server doesn't receive them fast enough, the connection is closed.
+     */
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private final SocketChannel channel;
+
+    /**
+     * The messages, which are not written yet (in write mode). It's guarded by this client.
+     */
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The messages, which are currently written by the writer thread. It's swapped with {@link #out}.
+     */
+    private ByteBuffer writing = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final VersusListener listener;
+
+    private final Executor executor;
+
+    private volatile boolean closed;
+
+    /**
+     * Connects to a server.
+     *
+     * @param address  The address of the server.
+     * @param listener The listener for the messages of the server.
+     * @param executor The executor, which calls the listener.
+     * @throws IOException If the connection failed.
+     */
+    public VersusClient(InetSocketAddress address, VersusListener listener, Executor executor) throws IOException {
+        this.listener = listener;
+        this.executor = executor;
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                receive();
+            }
+        }, "Versus Client");
+        thread.setDaemon(true);
+        thread.start();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "Versus Client Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Requests a match.
+     *
+     * @param players The number of players.
+     * @throws IOException If the connection is closed.
+     */
+    public synchronized void join(int players) throws IOException {
+        reserve(2).put(VersusProtocol.JOIN).put((byte) players);
+        notify();
+    }
+
+    /**
+     * Sends an input of the player.
+     *
+     * @param frame The frame of the input.
+     * @param event The ordinal of the {@link tetris.engine.replay.ReplayEvent}.
+     * @throws IOException If the connection is closed.
+     */
+    public synchronized void sendInput(int frame, int event) throws IOException {
+        reserve(6).put(VersusProtocol.INPUT).putInt(frame).put((byte) event);
+        notify();
+    }
+
+    /**
+     * Sends garbage rows to an opponent.
+     *
+     * @param rows The number of rows.
+     * @throws IOException If the connection is closed.
+     */
+    public synchronized void attack(int rows) throws IOException {
+        reserve(2).put(VersusProtocol.ATTACK).put((byte) rows);
+        notify();
+    }
+
+    /**
+     * Tells the server, that the player's game is over.
+     *
+     * @throws IOException If the connection is closed.
+     */
+    public synchronized void lose() throws IOException {
+        reserve(1).put(VersusProtocol.LOST);
+        notify();
+    }
+
+    /**
+     * Sends a ping, which is answered with {@link VersusListener#onPong(long)}.
+     *
+     * @throws IOException If the connection is closed.
+     */
+    public synchronized void ping() throws IOException {
+        reserve(9).put(VersusProtocol.PING).putLong(System.nanoTime());
+        notify();
+    }
+
+    /**
+     * Reserves space for a message in the buffer of the writer thread.
+     */
+    private ByteBuffer reserve(int size) throws IOException {
+        if (closed) {
+            throw new IOException("The connection is closed.");
+        }
+        if (out.remaining() < size) {
+            if (out.capacity() >= MAX_BUFFER_SIZE) {
+                close();
+                throw new IOException("The server doesn't receive the messages fast enough.");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(out.capacity() * 2);
+            out.flip();
+            buffer.put(out);
+            out = buffer;
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notify();
+        }
+        channel.close();
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (out.position() == 0 && !closed) {
+                        wait();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    ByteBuffer buffer = out;
+                    out = writing;
+                    writing = buffer;
+                }
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                writing.clear();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.log(Level.FINE, "The connection failed.", e);
+            }
+            try {
+                // The receiving thread notifies the listener.
+                close();
+            } catch (IOException ignored) {
+                // Already failed.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receive() {
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.hasRemaining()) {
+                    int type = in.get(in.position());
+                    int size = VersusProtocol.getPayloadSize(type);
+                    if (size < 0) {
+                        throw new IOException("Unknown message type " + type);
+                    }
+                    if (in.remaining() < size + 1) {
+                        break;
+                    }
+                    in.get();
+                    dispatch(type, in);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.log(Level.FINE, "The connection failed.", e);
+            }
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listener.onDisconnected();
+            }
+        });
+    }
+
+    private void dispatch(int type, ByteBuffer in) {
+        switch (type) {
+            case VersusProtocol.START: {
+                final long seed = in.getLong();
+                final int players = in.get() & 0xFF;
+                final int index = in.get() & 0xFF;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onStart(seed, players, index);
+                    }
+                });
+                break;
+            }
+            case VersusProtocol.OPPONENT_INPUT: {
+                final int player = in.get() & 0xFF;
+                final int frame = in.getInt();
+                final int event = in.get() & 0xFF;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onOpponentInput(player, frame, event);
+                    }
+                });
+                break;
+            }
+            case VersusProtocol.GARBAGE: {
+                final int from = in.get() & 0xFF;
+                final int rows = in.get() & 0xFF;
+                final int hole = in.get() & 0xFF;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onGarbage(from, rows, hole);
+                    }
+                });
+                break;
+            }
+            case VersusProtocol.END: {
+                final int winner = in.get() & 0xFF;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onEnd(winner);
+                    }
+                });
+                break;
+            }
+            case VersusProtocol.PONG: {
+                final long nanos = in.getLong();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onPong(nanos);
+                    }
+                });
+                break;
+            }
+            default:
+                // Messages of the client are ignored.
+                in.position(in.position() + VersusProtocol.getPayloadSize(type));
+                break;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+import java.util.EventListener;
+
+/**
+ * Receives the messages of the {@link VersusServer}.
+ *
+ * @author Christian Schudt
+ * @see VersusClient
+ */
+public interface VersusListener extends EventListener {
+
+    /**
+     * Notifies, that a match has started.
+     *
+     * @param seed    The seed of the piece generator, which is the same for all players.
+     * @param players The number of players.
+     * @param index   The index of this player.
+     */
+    void onStart(long seed, int players, int index);
+
+    /**
+     * Notifies about an input of an opponent.
+     *
+     * @param player The index of the opponent.
+     * @param frame  The frame of the input, counted since the start of the opponent's game.
+     * @param event  The ordinal of the {@link tetris.engine.replay.ReplayEvent}.
+     */
+    void onOpponentInput(int player, int frame, int event);
+
+    /**
+     * Notifies about garbage, which an opponent has sent.
+     *
+     * @param from The index of the opponent.
+     * @param rows The number of rows.
+     * @param hole The column of the hole.
+     */
+    void onGarbage(int from, int rows, int hole);
+
+    /**
+     * Notifies, that the match has ended.
+     *
+     * @param winner The index of the winner or {@link VersusProtocol#NO_PLAYER} for a draw.
+     */
+    void onEnd(int winner);
+
+    /**
+     * Notifies about the answer of a ping.
+     *
+     * @param nanos The timestamp of the ping (as of {@link System#nanoTime()}).
+     */
+    void onPong(long nanos);
+
+    /**
+     * Notifies, that the connection to the server is lost.
+     */
+    void onDisconnected();
+}
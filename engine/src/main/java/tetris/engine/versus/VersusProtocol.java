@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+/**
+ * The binary protocol between the {@link VersusServer} and its clients.
+ * <p/>
+ * Each message is a type byte, followed by a payload of fixed size (big-endian), so that no length prefix is needed:
+ * <table>
+ * <tr><th>Type</th><th>Direction</th><th>Payload</th></tr>
+ * <tr><td>{@link #JOIN}</td><td>client to server</td><td>players (1)</td></tr>
+ * <tr><td>{@link #START}</td><td>server to client</td><td>seed (8), players (1), index of the player (1)</td></tr>
+ * <tr><td>{@link #INPUT}</td><td>client to server</td><td>frame (4), event (1)</td></tr>
+ * <tr><td>{@link #OPPONENT_INPUT}</td><td>server to client</td><td>player (1), frame (4), event (1)</td></tr>
+ * <tr><td>{@link #ATTACK}</td><td>client to server</td><td>rows (1)</td></tr>
+ * <tr><td>{@link #GARBAGE}</td><td>server to client</td><td>attacking player (1), rows (1), hole (1)</td></tr>
+ * <tr><td>{@link #LOST}</td><td>client to server</td><td>-</td></tr>
+ * <tr><td>{@link #END}</td><td>server to client</td><td>winner (1), {@link #NO_PLAYER} for a draw</td></tr>
+ * <tr><td>{@link #PING}</td><td>client to server</td><td>timestamp (8)</td></tr>
+ * <tr><td>{@link #PONG}</td><td>server to client</td><td>the timestamp of the ping (8)</td></tr>
+ * </table>
+ *
+ * @author Christian Schudt
+ */
+public final class VersusProtocol {
+
+    /**
+     * Requests a match with the given number of players.
+     */
+    public static final byte JOIN = 1;
+
+    /**
+     * Starts a match. All players get the same seed.
+     */
+    public static final byte START = 2;
+
+    /**
+     * An input of the player, which is relayed to the opponents, so that they can mirror the player's game.
+     */
+    public static final byte INPUT = 3;
+
+    /**
+     * A relayed input of an opponent.
+     */
+    public static final byte OPPONENT_INPUT = 4;
+
+    /**
+     * The player has eliminated rows, which are sent as garbage to an opponent.
+     */
+    public static final byte ATTACK = 5;
+
+    /**
+     * Garbage rows from an opponent. The server chooses the hole, so that all clients see the same playfield.
+     */
+    public static final byte GARBAGE = 6;
+
+    /**
+     * The player's game is over.
+     */
+    public static final byte LOST = 7;
+
+    /**
+     * The match has ended.
+     */
+    public static final byte END = 8;
+
+    public static final byte PING = 9;
+
+    public static final byte PONG = 10;
+
+    /**
+     * The player number of a draw.
+     */
+    public static final int NO_PLAYER = 255;
+
+    /**
+     * The maximal number of players per match.
+     */
+    public static final int MAX_PLAYERS = 16;
+
+    /**
+     * The maximal number of rows of an attack.
+     */
+    public static final int MAX_ATTACK = 4;
+
+    private static final int[] PAYLOAD_SIZES = {-1, 1, 10, 5, 6, 1, 3, 0, 1, 8, 8};
+
+    /**
+     * The garbage rows, which are sent for 0 to 4 eliminated rows.
+     */
+    private static final int[] GARBAGE_ROWS = {0, 0, 1, 2, 4};
+
+    private VersusProtocol() {
+    }
+
+    /**
+     * Gets the size of the payload of a message type.
+     *
+     * @param type The message type.
+     * @return The size in bytes or -1, if the type is unknown.
+     */
+    public static int getPayloadSize(int type) {
+        return type > 0 && type < PAYLOAD_SIZES.length ? PAYLOAD_SIZES[type] : -1;
+    }
+
+    /**
+     * Gets the number of garbage rows, which are sent to an opponent, when rows are eliminated.
+     *
+     * @param rows The number of eliminated rows.
+     * @return The number of garbage rows.
+     */
+    public static int getGarbageRows(int rows) {
+        return GARBAGE_ROWS[rows];
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+import tetris.engine.Playfield;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Matches players and relays their messages in versus mode.
+ * <p/>
+ * All connections are handled by one thread with a selector and non-blocking channels.
+ * Messages are parsed directly from the receive buffer of a connection and answers are collected in its send buffer,
+ * which is written once per round of the selector. Only if a client doesn't receive fast enough, the server waits until its channel is writable.
+ * <p/>
+ * Players, which join with the same number of players, are matched in the order of their arrival.
+ * The garbage of an attack is sent to the next opponent, which is still alive, and gets a random hole.
+ *
+ * @author Christian Schudt
+ * @see VersusProtocol
+ */
+public final class VersusServer implements Runnable, Closeable {
+
+    private static final Logger logger = Logger.getLogger(VersusServer.class.getName());
+
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * The maximal size of the send buffer of a connection. A client, which falls behind further, is disconnected.
+     */
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The players, which wait for a match, by the number of players of the match.
+     */
+    private final Map<Integer, List<Connection>> waitingPlayers = new HashMap<>();
+
+    /**
+     * The connections, which have something to send.
+     */
+    private final List<Connection> pendingConnections = new ArrayList<>();
+
+    private final Random random = new Random();
+
+    private volatile boolean running = true;
+
+    private volatile int matches;
+
+    private volatile long messages;
+
+    /**
+     * Creates a server, which listens on all addresses.
+     *
+     * @param port The port or 0 for an ephemeral port.
+     * @throws IOException If the port could not be bound.
+     */
+    public VersusServer(int port) throws IOException {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Creates a server.
+     *
+     * @param address The address to listen on.
+     * @throws IOException If the address could not be bound.
+     */
+    public VersusServer(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Gets the port, the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of matches, which have been started.
+     *
+     * @return The number of matches.
+     */
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * Gets the number of messages, which have been received.
+     *
+     * @return The number of messages.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * Handles the connections until the server is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    }
+                }
+                // A failed write disconnects the client and ends its match, which adds the opponents to the list, so it's iterated by index.
+                for (int i = 0; i < pendingConnections.size(); i++) {
+                    Connection connection = pendingConnections.get(i);
+                    connection.pending = false;
+                    connection.flush();
+                }
+                pendingConnections.clear();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "The server failed.", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * Stops the server and closes all connections.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void join(Connection connection, int players) {
+        if (connection.waiting || players < 2 || players > VersusProtocol.MAX_PLAYERS) {
+            return;
+        }
+        if (connection.match != null) {
+            if (connection.match.alive[connection.index]) {
+                return;
+            }
+            // A player, who has lost, may join the next match, before the current one has ended.
+            connection.match = null;
+        }
+        List<Connection> waiting = waitingPlayers.get(players);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            waitingPlayers.put(players, waiting);
+        }
+        waiting.add(connection);
+        connection.waiting = true;
+        if (waiting.size() == players) {
+            Match match = new Match(waiting.toArray(new Connection[players]), random.nextLong(), random.nextLong());
+            waiting.clear();
+            matches++;
+            for (int i = 0; i < players; i++) {
+                Connection player = match.players[i];
+                player.waiting = false;
+                player.match = match;
+                player.index = i;
+                ByteBuffer out = player.reserve(11);
+                out.put(VersusProtocol.START).putLong(match.seed).put((byte) players).put((byte) i);
+            }
+        }
+    }
+
+    private void lose(Connection connection) {
+        Match match = connection.match;
+        if (match == null || !match.alive[connection.index]) {
+            return;
+        }
+        match.alive[connection.index] = false;
+        match.remaining--;
+        if (match.remaining <= 1) {
+            int winner = VersusProtocol.NO_PLAYER;
+            for (int i = 0; i < match.players.length; i++) {
+                if (match.alive[i]) {
+                    winner = i;
+                }
+            }
+            for (Connection player : match.players) {
+                if (player.match == match) {
+                    player.reserve(2).put(VersusProtocol.END).put((byte) winner);
+                    player.match = null;
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Ignore, the channel is gone anyway.
+        }
+    }
+
+    /**
+     * A running match.
+     */
+    private static final class Match {
+
+        private final Connection[] players;
+
+        private final boolean[] alive;
+
+        private final long seed;
+
+        /**
+         * Chooses the holes of the garbage rows.
+         */
+        private final Random random;
+
+        private int remaining;
+
+        private Match(Connection[] players, long seed, long holeSeed) {
+            this.players = players;
+            this.seed = seed;
+            this.random = new Random(holeSeed);
+            alive = new boolean[players.length];
+            Arrays.fill(alive, true);
+            remaining = players.length;
+        }
+
+        /**
+         * Gets the next opponent, which is alive.
+         *
+         * @param index The attacking player.
+         * @return The opponent or -1, if there is none.
+         */
+        private int nextOpponent(int index) {
+            for (int i = 1; i < players.length; i++) {
+                int opponent = (index + i) % players.length;
+                if (alive[opponent] && players[opponent].match == this) {
+                    return opponent;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * A connection to a client.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * The messages, which are not sent yet (in write mode).
+         */
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private SelectionKey key;
+
+        private Match match;
+
+        private int index;
+
+        private boolean waiting;
+
+        /**
+         * If the connection is in the list of pending connections.
+         */
+        private boolean pending;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() {
+            int read;
+            try {
+                read = channel.read(in);
+            } catch (IOException e) {
+                read = -1;
+            }
+            if (read < 0) {
+                disconnect();
+                return;
+            }
+            in.flip();
+            while (in.hasRemaining()) {
+                int type = in.get(in.position());
+                int size = VersusProtocol.getPayloadSize(type);
+                if (size < 0) {
+                    logger.fine("Unknown message type " + type);
+                    disconnect();
+                    return;
+                }
+                if (in.remaining() < size + 1) {
+                    break;
+                }
+                in.get();
+                messages++;
+                handle(type);
+                if (!channel.isOpen()) {
+                    return;
+                }
+            }
+            in.compact();
+        }
+
+        private void handle(int type) {
+            switch (type) {
+                case VersusProtocol.JOIN:
+                    join(this, in.get() & 0xFF);
+                    break;
+                case VersusProtocol.INPUT: {
+                    int frame = in.getInt();
+                    byte event = in.get();
+                    if (match != null) {
+                        for (Connection player : match.players) {
+                            if (player != this && player.match == match) {
+                                player.reserve(7).put(VersusProtocol.OPPONENT_INPUT).put((byte) index).putInt(frame).put(event);
+                            }
+                        }
+                    }
+                    break;
+                }
+                case VersusProtocol.ATTACK: {
+                    int rows = in.get() & 0xFF;
+                    int opponent = match != null && rows > 0 && rows <= VersusProtocol.MAX_ATTACK ? match.nextOpponent(index) : -1;
+                    if (opponent >= 0) {
+                        int hole = match.random.nextInt(Playfield.COLUMNS);
+                        match.players[opponent].reserve(4).put(VersusProtocol.GARBAGE).put((byte) index).put((byte) rows).put((byte) hole);
+                    }
+                    break;
+                }
+                case VersusProtocol.LOST:
+                    lose(this);
+                    break;
+                case VersusProtocol.PING:
+                    reserve(9).put(VersusProtocol.PONG).putLong(in.getLong());
+                    break;
+                default:
+                    // Messages of the server are ignored.
+                    in.position(in.position() + VersusProtocol.getPayloadSize(type));
+                    break;
+            }
+        }
+
+        /**
+         * Reserves space in the send buffer. The connection is flushed at the end of the round.
+         */
+        private ByteBuffer reserve(int size) {
+            if (out.remaining() < size) {
+                ByteBuffer buffer = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + size));
+                out.flip();
+                buffer.put(out);
+                out = buffer;
+            }
+            if (!pending) {
+                pending = true;
+                pendingConnections.add(this);
+            }
+            return out;
+        }
+
+        private void flush() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            out.flip();
+            try {
+                channel.write(out);
+            } catch (IOException e) {
+                out.compact();
+                disconnect();
+                return;
+            }
+            boolean remaining = out.hasRemaining();
+            out.compact();
+            if (out.position() > MAX_BUFFER_SIZE) {
+                logger.fine("Disconnecting a slow client.");
+                disconnect();
+            } else if (remaining) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+                if (out.capacity() > BUFFER_SIZE) {
+                    out = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+            }
+        }
+
+        private void disconnect() {
+            key.cancel();
+            closeQuietly(channel);
+            if (waiting) {
+                for (List<Connection> players : waitingPlayers.values()) {
+                    players.remove(this);
+                }
+                waiting = false;
+            }
+            lose(this);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+import tetris.engine.Game;
+import tetris.engine.GameListener;
+import tetris.engine.PieceType;
+import tetris.engine.replay.ReplayEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connects a {@link Game} to a versus match. It has to be added as listener to the game.
+ * <p/>
+ * The inputs of the player are sent to the opponents. Eliminated rows first cancel the pending garbage and the rest is sent as attack.
+ * Garbage of the opponents is added to the game and inserted after the next lock, which doesn't eliminate rows.
+ * <p/>
+ * The messages of the server are processed by the executor, which must run them on the thread of the game.
+ *
+ * @author Christian Schudt
+ */
+public final class VersusSession implements GameListener, VersusListener, Closeable {
+
+    private static final Logger logger = Logger.getLogger(VersusSession.class.getName());
+
+    private final Game game;
+
+    private final LongSupplier frames;
+
+    private final LongConsumer starter;
+
+    private final VersusClient client;
+
+    private long startFrame;
+
+    private int index = -1;
+
+    private int players;
+
+    private int winner = -1;
+
+    private int opponentInputs;
+
+    private long roundTripNanos;
+
+    private int pongs;
+
+    /**
+     * Connects to a server.
+     *
+     * @param game     The game of the player.
+     * @param frames   The clock, which returns the current frame.
+     * @param address  The address of the server.
+     * @param executor The executor, which runs the messages of the server on the thread of the game.
+     * @param starter  Starts the game with the seed of the match.
+     * @throws IOException If the connection failed.
+     */
+    public VersusSession(Game game, LongSupplier frames, InetSocketAddress address, Executor executor, LongConsumer starter) throws IOException {
+        this.game = game;
+        this.frames = frames;
+        this.starter = starter;
+        client = new VersusClient(address, this, executor);
+    }
+
+    /**
+     * Requests a match.
+     *
+     * @param players The number of players.
+     */
+    public void join(int players) {
+        index = -1;
+        winner = -1;
+        try {
+            client.join(players);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Sends a ping to measure the round trip time.
+     *
+     * @see #getRoundTripNanos()
+     */
+    public void ping() {
+        try {
+            client.ping();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Gets the index of the player in the current match.
+     *
+     * @return The index or -1, if no match has started yet.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the number of players of the current match.
+     *
+     * @return The number of players.
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Gets the winner of the last match.
+     *
+     * @return The index of the winner, {@link VersusProtocol#NO_PLAYER} for a draw or -1, if the match has not ended yet.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets the number of inputs, which were received from the opponents.
+     *
+     * @return The number of inputs.
+     */
+    public int getOpponentInputs() {
+        return opponentInputs;
+    }
+
+    /**
+     * Gets the round trip time of the last ping.
+     *
+     * @return The round trip time in nanoseconds or 0, if no ping has been answered yet.
+     */
+    public long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+
+    /**
+     * Gets the number of pings, which have been answered.
+     *
+     * @return The number of answered pings.
+     */
+    public int getPongs() {
+        return pongs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    @Override
+    public void onStart(long seed, int players, int index) {
+        this.players = players;
+        this.index = index;
+        // The end of a previous match may arrive after the player has joined again.
+        winner = -1;
+        starter.accept(seed);
+        // The starter may reset the clock (e.g. the board does), so the frame is taken afterwards.
+        startFrame = frames.getAsLong();
+    }
+
+    @Override
+    public void onOpponentInput(int player, int frame, int event) {
+        // The opponents' boards are not mirrored yet, so the inputs are only counted.
+        opponentInputs++;
+    }
+
+    @Override
+    public void onGarbage(int from, int rows, int hole) {
+        if (winner < 0 && !game.isGameOver()) {
+            game.addGarbage(rows, hole);
+        }
+    }
+
+    @Override
+    public void onEnd(int winner) {
+        this.winner = winner;
+    }
+
+    @Override
+    public void onPong(long nanos) {
+        roundTripNanos = System.nanoTime() - nanos;
+        pongs++;
+    }
+
+    @Override
+    public void onDisconnected() {
+        if (index >= 0 && winner < 0) {
+            winner = VersusProtocol.NO_PLAYER;
+        }
+    }
+
+    @Override
+    public void onSpawned(PieceType type, int x, int y) {
+        if (game.getPieces() > 1) {
+            send(ReplayEvent.SPAWN);
+        }
+    }
+
+    @Override
+    public void onMoved(int direction, int x) {
+        send(direction < 0 ? ReplayEvent.MOVE_LEFT : ReplayEvent.MOVE_RIGHT);
+    }
+
+    @Override
+    public void onRotated(int direction) {
+        send(direction < 0 ? ReplayEvent.ROTATE_COUNTER_CLOCKWISE : ReplayEvent.ROTATE_CLOCKWISE);
+    }
+
+    @Override
+    public void onMovedDown(int y) {
+        send(ReplayEvent.MOVE_DOWN);
+    }
+
+    @Override
+    public void onDropped(int y) {
+        send(ReplayEvent.DROP);
+    }
+
+    @Override
+    public void onInvalidMove() {
+        // Does not change the game.
+    }
+
+    @Override
+    public void onLocked(PieceType type, int rotation, int x, int y) {
+        send(ReplayEvent.LOCK);
+    }
+
+    @Override
+    public void onRowsEliminated(int rows) {
+        int garbage = game.cancelGarbage(VersusProtocol.getGarbageRows(Integer.bitCount(rows)));
+        if (garbage > 0 && isPlaying()) {
+            try {
+                client.attack(garbage);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    @Override
+    public void onGarbageAdded(int rows, int hole) {
+        // The garbage has been sent by the server, so the opponents know it already.
+    }
+
+    @Override
+    public void onGameOver() {
+        if (isPlaying()) {
+            try {
+                client.lose();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private boolean isPlaying() {
+        return index >= 0 && winner < 0;
+    }
+
+    private void send(ReplayEvent event) {
+        if (isPlaying()) {
+            try {
+                client.sendInput((int) (frames.getAsLong() - startFrame), event.ordinal());
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        logger.log(Level.WARNING, "The connection to the versus server failed.", e);
+        try {
+            client.close();
+        } catch (IOException ignored) {
+            // Already failed.
+        }
+    }
+}
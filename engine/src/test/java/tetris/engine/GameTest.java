@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import tetris.engine.simulation.GreedyPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Christian Schudt
+ */
+public class GameTest {
+
+    private static final int PIECES = 300;
+
+    @DataProvider
+    public Object[][] previews() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String generator : new String[]{"uniform", "bag"}) {
+            for (int previews = 1; previews <= 6; previews++) {
+                parameters.add(new Object[]{generator, previews});
+            }
+        }
+        return parameters.toArray(new Object[parameters.size()][]);
+    }
+
+    @Test(dataProvider = "previews")
+    public void testWaitingPieces(String generatorName, int previews) {
+        Game game = new Game(previews, PieceGenerators.forName(generatorName));
+        PieceGenerator expected = PieceGenerators.forName(generatorName);
+        expected.setSeed(42);
+        List<PieceType> sequence = new ArrayList<>();
+        game.start(42);
+        GreedyPolicy policy = new GreedyPolicy();
+        // The ring buffer holds previews + 1 pieces, so it wraps around many times.
+        for (int piece = 0; piece < PIECES; piece++) {
+            while (sequence.size() <= piece + previews) {
+                sequence.add(expected.next());
+            }
+            Assert.assertEquals(game.getCurrentPiece(), sequence.get(piece), "Piece " + piece);
+            Assert.assertEquals(game.getWaitingPieceCount(), previews);
+            for (int i = 0; i < previews; i++) {
+                Assert.assertEquals(game.getWaitingPiece(i), sequence.get(piece + 1 + i), "Waiting piece " + i + " of piece " + piece);
+            }
+            policy.play(game);
+            game.dropDown();
+            game.lock();
+            Assert.assertFalse(game.isGameOver(), "Game over after " + piece + " pieces");
+            game.spawn();
+        }
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testWaitingPieceOutOfBounds() {
+        Game game = new Game(3);
+        game.start(1);
+        game.getWaitingPiece(3);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * @author Christian Schudt
+ */
+public class PieceGeneratorTest {
+
+    @DataProvider
+    public Object[][] generators() {
+        return new Object[][]{{"uniform"}, {"bag"}, {"history"}, {"history6"}};
+    }
+
+    @Test(dataProvider = "generators")
+    public void testReseedReproducesSequence(String name) {
+        PieceGenerator generator = PieceGenerators.forName(name);
+        generator.setSeed(42);
+        String first = sequence(generator, 100);
+        // Leave the generator in the middle of a sequence, e.g. of a bag.
+        generator.next();
+        generator.next();
+        generator.setSeed(42);
+        Assert.assertEquals(sequence(generator, 100), first);
+
+        PieceGenerator other = PieceGenerators.forName(name);
+        other.setSeed(42);
+        Assert.assertEquals(sequence(other, 100), first);
+    }
+
+    @Test
+    public void testBagContainsEachPieceOnce() {
+        PieceGenerator generator = new BagGenerator();
+        generator.setSeed(7);
+        for (int i = 0; i < 100; i++) {
+            Set<PieceType> bag = EnumSet.noneOf(PieceType.class);
+            for (int j = 0; j < PieceType.values().length; j++) {
+                Assert.assertTrue(bag.add(generator.next()));
+            }
+        }
+    }
+
+    @Test
+    public void testForNameReturnsName() {
+        for (Object[] name : generators()) {
+            Assert.assertEquals(PieceGenerators.forName((String) name[0]).getName(), name[0]);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownGenerator() {
+        PieceGenerators.forName("unknown");
+    }
+
+    private static String sequence(PieceGenerator generator, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(generator.next());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Checks the incrementally maintained column statistics and the landing position of the playfield against full scans.
+ *
+ * @author Christian Schudt
+ */
+public class PlayfieldTest {
+
+    private static final int PLACEMENTS = 100000;
+
+    @Test
+    public void testRandomPlacements() {
+        Random random = new Random(1);
+        Playfield playfield = new Playfield();
+        PieceType[] types = PieceType.values();
+        int eliminations = 0;
+        int garbage = 0;
+        for (int i = 0; i < PLACEMENTS; i++) {
+            PieceType type = types[random.nextInt(types.length)];
+            PieceShape shape = type.getShape(random.nextInt(PieceType.ROTATIONS));
+            int x = random.nextInt(Playfield.COLUMNS - shape.getWidth() + 1) - shape.getLeft();
+            int y = -shape.getTop();
+            if (playfield.intersects(shape, x, y)) {
+                // The playfield is full at the top.
+                playfield.clear();
+                assertStatistics(playfield);
+                continue;
+            }
+            // Sometimes start below the top, so that the piece may be tucked under an overhang.
+            int start = y + random.nextInt(Playfield.ROWS / 2);
+            while (start > y && playfield.intersects(shape, x, start)) {
+                start--;
+            }
+            if (!isReachable(playfield, shape, x, start)) {
+                start = y;
+            }
+            int landing = playfield.drop(shape, x, start);
+            Assert.assertEquals(landing, scanLanding(playfield, shape, x, start), "Landing of " + type + " at " + x + ", " + start);
+
+            playfield.merge(type, shape, x, landing);
+            assertStatistics(playfield);
+            if (playfield.eliminateRows(0, Playfield.ROWS - 1) != 0) {
+                eliminations++;
+                assertStatistics(playfield);
+            }
+            if (random.nextInt(20) == 0) {
+                garbage++;
+                if (playfield.addGarbage(1 + random.nextInt(4), random.nextInt(Playfield.COLUMNS))) {
+                    playfield.clear();
+                }
+                assertStatistics(playfield);
+            }
+        }
+        // Make sure, that all paths have been taken.
+        Assert.assertTrue(eliminations > 100, "Eliminations: " + eliminations);
+        Assert.assertTrue(garbage > 1000, "Garbage: " + garbage);
+    }
+
+    @Test
+    public void testCopyFrom() {
+        Playfield playfield = new Playfield();
+        playfield.addGarbage(3, 4);
+        playfield.merge(PieceType.T, PieceType.T.getShape(0), 0, Playfield.ROWS - 5);
+        Playfield copy = new Playfield();
+        copy.copyFrom(playfield);
+        for (int row = 0; row < Playfield.ROWS; row++) {
+            Assert.assertEquals(copy.getRow(row), playfield.getRow(row));
+            for (int column = 0; column < Playfield.COLUMNS; column++) {
+                Assert.assertEquals(copy.getCell(row, column), playfield.getCell(row, column));
+            }
+        }
+        assertStatistics(copy);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidGarbage() {
+        new Playfield().addGarbage(1, Playfield.COLUMNS);
+    }
+
+    /**
+     * Checks, if a piece can be moved down from the top to the start position.
+     */
+    private static boolean isReachable(Playfield playfield, PieceShape shape, int x, int y) {
+        for (int row = -shape.getTop(); row <= y; row++) {
+            if (playfield.intersects(shape, x, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int scanLanding(Playfield playfield, PieceShape shape, int x, int y) {
+        while (!playfield.intersects(shape, x, y + 1)) {
+            y++;
+        }
+        return y;
+    }
+
+    private static void assertStatistics(Playfield playfield) {
+        int[] heights = new int[Playfield.COLUMNS];
+        int aggregateHeight = 0;
+        int holes = 0;
+        for (int column = 0; column < Playfield.COLUMNS; column++) {
+            int columnHoles = 0;
+            for (int row = 0; row < Playfield.ROWS; row++) {
+                boolean occupied = (playfield.getRow(row) & 1 << column) != 0;
+                if (occupied && heights[column] == 0) {
+                    heights[column] = Playfield.ROWS - row;
+                } else if (!occupied && heights[column] > 0) {
+                    columnHoles++;
+                }
+            }
+            Assert.assertEquals(playfield.getColumnHeight(column), heights[column], "Height of column " + column);
+            Assert.assertEquals(playfield.getColumnHoles(column), columnHoles, "Holes of column " + column);
+            aggregateHeight += heights[column];
+            holes += columnHoles;
+        }
+        for (int column = 0; column < Playfield.COLUMNS; column++) {
+            int left = column > 0 ? heights[column - 1] : Playfield.ROWS;
+            int right = column < Playfield.COLUMNS - 1 ? heights[column + 1] : Playfield.ROWS;
+            Assert.assertEquals(playfield.getWellDepth(column), Math.max(0, Math.min(left, right) - heights[column]), "Well depth of column " + column);
+        }
+        Assert.assertEquals(playfield.getAggregateHeight(), aggregateHeight);
+        Assert.assertEquals(playfield.getHoles(), holes);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.replay;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.PieceGenerators;
+import tetris.engine.Playfield;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Christian Schudt
+ */
+public class ReplayTest {
+
+    private static final String[] GENERATORS = {"uniform", "bag", "history", "history6"};
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(5);
+        int garbage = 0;
+        long size = 0;
+        long total = 0;
+        for (int i = 0; i < 40; i++) {
+            Game game = new Game(3, PieceGenerators.forName(GENERATORS[i % GENERATORS.length]));
+            Replay replay = play(game, random, i);
+            Assert.assertNotNull(replay);
+            garbage += count(replay, ReplayEvent.GARBAGE);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            replay.write(out);
+            Replay read = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+            Assert.assertEquals(read, replay);
+            Assert.assertEquals(read.getGenerator(), game.getPieceGenerator().getName());
+            Assert.assertEquals(read.getSeed(), game.getSeed());
+            Assert.assertEquals(read.getEvents(), replay.getEvents());
+            Assert.assertEquals(read.getFrames(), replay.getFrames());
+            size += read.getSize();
+            total += read.getEvents();
+
+            long frame = 0;
+            int events = 0;
+            ReplayReader reader = read.reader();
+            while (reader.hasNext()) {
+                Assert.assertTrue(reader.getFrame() >= frame);
+                frame = reader.getFrame();
+                reader.next();
+                events++;
+            }
+            Assert.assertEquals(events, read.getEvents());
+            Assert.assertEquals(frame, read.getFrames());
+
+            Game replayed = new Game(3);
+            read.play(replayed);
+            assertSameGame(replayed, game);
+        }
+        Assert.assertTrue(garbage > 0, "No garbage recorded.");
+        // Gravity is recorded as repetitions, so there's less than a byte per event.
+        Assert.assertTrue(size < total, size + " bytes for " + total + " events.");
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] bytes = write(play(new Game(), new Random(7), 7));
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                Replay.read(new ByteArrayInputStream(bytes, 0, length));
+                Assert.fail("Truncated replay of " + length + " bytes has been read.");
+            } catch (IOException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void testCorrupt() throws IOException {
+        byte[] bytes = write(play(new Game(), new Random(11), 11));
+        Random random = new Random(13);
+        int rejected = 0;
+        for (int i = 0; i < 10000; i++) {
+            byte[] corrupt = bytes.clone();
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                corrupt[random.nextInt(corrupt.length)] ^= 1 << random.nextInt(8);
+            }
+            try {
+                Replay replay = Replay.read(new ByteArrayInputStream(corrupt));
+                // If the corruption is not detected, the events are still well-formed.
+                ReplayReader reader = replay.reader();
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            } catch (IOException e) {
+                rejected++;
+            }
+        }
+        Assert.assertTrue(rejected > 5000, "Rejected: " + rejected);
+    }
+
+    @Test
+    public void testInvalidData() {
+        assertInvalid(1, 0, Integer.MAX_VALUE, new byte[]{0});
+        assertInvalid(1, 0, -1, new byte[0]);
+        assertInvalid(-1, 0, 0, new byte[0]);
+        // Unknown event type.
+        assertInvalid(1, 0, 1, new byte[]{10});
+        // A repetition without a token.
+        assertInvalid(2, 0, 2, new byte[]{ReplayRecorder.REPEAT, 2});
+        // A repetition of garbage.
+        assertInvalid(3, 0, 4, new byte[]{ReplayRecorder.GARBAGE, 1 << 4, ReplayRecorder.REPEAT, 2});
+        // Garbage without an argument or with an invalid one.
+        assertInvalid(1, 0, 1, new byte[]{ReplayRecorder.GARBAGE});
+        assertInvalid(1, 0, 2, new byte[]{ReplayRecorder.GARBAGE, 0});
+        assertInvalid(1, 0, 2, new byte[]{ReplayRecorder.GARBAGE, 1 << 4 | Playfield.COLUMNS});
+        assertInvalid(1, 0, 3, new byte[]{ReplayRecorder.GARBAGE, (byte) (Playfield.ROWS << 4 & 0x7F | 0x80), Playfield.ROWS << 4 >>> 7});
+        // A truncated and a too long varint.
+        assertInvalid(1, 0, 1, new byte[]{(byte) 0x81});
+        assertInvalid(1, 0, 11, new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1});
+        // The number of events or frames does not match the header.
+        assertInvalid(2, 0, 1, new byte[]{1});
+        assertInvalid(1, 1, 1, new byte[]{1});
+    }
+
+    @Test
+    public void testValidData() throws IOException {
+        // Two moves at frame 0, then three rotations every 3 frames, then garbage.
+        byte[] data = {0, 0, 3 << 4 | 2, ReplayRecorder.REPEAT, 2, ReplayRecorder.GARBAGE, 2 << 4 | 5};
+        ReplayReader reader = Replay.read(new ByteArrayInputStream(write(6, 9, data))).reader();
+        ReplayEvent[] events = {ReplayEvent.MOVE_LEFT, ReplayEvent.MOVE_LEFT, ReplayEvent.ROTATE_CLOCKWISE, ReplayEvent.ROTATE_CLOCKWISE, ReplayEvent.ROTATE_CLOCKWISE, ReplayEvent.GARBAGE};
+        long[] frames = {0, 0, 3, 6, 9, 9};
+        for (int i = 0; i < events.length; i++) {
+            Assert.assertTrue(reader.hasNext());
+            Assert.assertEquals(reader.getFrame(), frames[i]);
+            Assert.assertEquals(reader.next(), events[i]);
+        }
+        Assert.assertEquals(reader.getArgument(), 2 << 4 | 5);
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Plays a game with random inputs, gravity and garbage.
+     *
+     * @return The recorded replay.
+     */
+    private static Replay play(Game game, Random random, long seed) {
+        final long[] clock = new long[1];
+        ReplayRecorder recorder = new ReplayRecorder(game, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return clock[0];
+            }
+        });
+        game.addGameListener(recorder);
+        game.start(seed);
+        while (!game.isGameOver() && game.getPieces() < 300) {
+            int gravity = 1 + random.nextInt(30);
+            for (int i = random.nextInt(6); i > 0; i--) {
+                input(game, random);
+                clock[0] += random.nextInt(gravity);
+            }
+            // The piece mostly falls by gravity, with an occasional input.
+            while (true) {
+                if (random.nextInt(16) == 0) {
+                    input(game, random);
+                    clock[0] += random.nextInt(gravity);
+                } else if (game.moveDown()) {
+                    clock[0] += gravity;
+                } else {
+                    break;
+                }
+            }
+            if (random.nextInt(8) == 0) {
+                game.addGarbage(1 + random.nextInt(4), random.nextInt(Playfield.COLUMNS));
+            }
+            game.lock();
+            clock[0] += random.nextInt(20);
+            if (!game.isGameOver()) {
+                game.spawn();
+            }
+        }
+        return recorder.getReplay();
+    }
+
+    private static void input(Game game, Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                game.move(-1);
+                break;
+            case 1:
+                game.move(1);
+                break;
+            case 2:
+            case 3:
+                game.rotate(random.nextBoolean() ? 1 : -1);
+                break;
+            case 4:
+                game.dropDown();
+                break;
+            default:
+                game.move(random.nextBoolean() ? 1 : -1);
+                break;
+        }
+    }
+
+    private static int count(Replay replay, ReplayEvent event) {
+        int count = 0;
+        ReplayReader reader = replay.reader();
+        while (reader.hasNext()) {
+            if (reader.next() == event) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertSameGame(Game actual, Game expected) {
+        Assert.assertEquals(actual.getScore(), expected.getScore());
+        Assert.assertEquals(actual.getRows(), expected.getRows());
+        Assert.assertEquals(actual.getPieces(), expected.getPieces());
+        Assert.assertEquals(actual.isGameOver(), expected.isGameOver());
+        for (int row = 0; row < Playfield.ROWS; row++) {
+            Assert.assertEquals(actual.getPlayfield().getRow(row), expected.getPlayfield().getRow(row), "Row " + row);
+        }
+    }
+
+    private static byte[] write(Replay replay) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        replay.write(out);
+        return out.toByteArray();
+    }
+
+    private static byte[] write(int events, long frames, int length, byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Replay("bag", 0, new byte[0], 0, 0).write(out);
+        byte[] header = out.toByteArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // The header without the counts, the length and the (empty) data.
+        bytes.write(header, 0, header.length - 16);
+        DataOutputStream dataOutputStream = new DataOutputStream(bytes);
+        dataOutputStream.writeInt(events);
+        dataOutputStream.writeLong(frames);
+        dataOutputStream.writeInt(length);
+        dataOutputStream.write(data);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] write(int events, long frames, byte[] data) throws IOException {
+        return write(events, frames, data.length, data);
+    }
+
+    private static void assertInvalid(int events, long frames, int length, byte[] data) {
+        try {
+            Replay.read(new ByteArrayInputStream(write(events, frames, length, data)));
+            Assert.fail("Invalid replay has been read.");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.GameListener;
+import tetris.engine.PieceGenerator;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+
+import java.util.Random;
+
+/**
+ * Plays the greedy policy on playfields, which are crowded around the spawn position, and checks, that it reaches the chosen placement.
+ *
+ * @author Christian Schudt
+ */
+public class GreedyPolicyTest {
+
+    private static final int PLAYFIELDS = 2000;
+
+    @Test
+    public void testPlacementReachable() {
+        Random random = new Random(5);
+        GreedyPolicy policy = new GreedyPolicy();
+        final int[] invalidMoves = new int[1];
+        final int[] rotations = new int[1];
+        GameListener listener = new GameListener() {
+            @Override
+            public void onSpawned(PieceType type, int x, int y) {
+            }
+
+            @Override
+            public void onMoved(int direction, int x) {
+            }
+
+            @Override
+            public void onRotated(int direction) {
+                rotations[0]++;
+            }
+
+            @Override
+            public void onMovedDown(int y) {
+            }
+
+            @Override
+            public void onDropped(int y) {
+            }
+
+            @Override
+            public void onInvalidMove() {
+                invalidMoves[0]++;
+            }
+
+            @Override
+            public void onLocked(PieceType type, int rotation, int x, int y) {
+            }
+
+            @Override
+            public void onRowsEliminated(int rows) {
+            }
+
+            @Override
+            public void onGameOver() {
+            }
+
+            @Override
+            public void onGarbageAdded(int rows, int hole) {
+            }
+        };
+        int games = 0;
+        for (int i = 0; i < PLAYFIELDS; i++) {
+            Playfield playfield = createPlayfield(random);
+            for (PieceType type : PieceType.values()) {
+                Game game = createGame(type, playfield);
+                if (game.intersects(game.getX(), game.getY())) {
+                    continue;
+                }
+                game.addGameListener(listener);
+                policy.play(game);
+                // Each rotation and move of the policy succeeds, so the piece is where the policy has planned it.
+                Assert.assertEquals(invalidMoves[0], 0, type + " on playfield " + i);
+                games++;
+            }
+        }
+        Assert.assertTrue(games > 5000, "Games: " + games);
+        Assert.assertTrue(rotations[0] > 0, "No rotations.");
+    }
+
+    /**
+     * Creates a playfield with a few pieces around the spawn position, which block some rotations.
+     */
+    private static Playfield createPlayfield(Random random) {
+        Playfield playfield = new Playfield();
+        PieceType[] types = PieceType.values();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            PieceType type = types[random.nextInt(types.length)];
+            PieceShape shape = type.getShape(random.nextInt(PieceType.ROTATIONS));
+            int x = random.nextInt(Playfield.COLUMNS - shape.getWidth() + 1) - shape.getLeft();
+            int y = random.nextInt(6) - shape.getTop();
+            if (!playfield.intersects(shape, x, y)) {
+                playfield.merge(type, shape, x, y);
+            }
+        }
+        return playfield;
+    }
+
+    /**
+     * Creates a game, whose current piece has just spawned on the given playfield.
+     */
+    private static Game createGame(final PieceType type, Playfield playfield) {
+        Game game = new Game(1, new PieceGenerator() {
+            @Override
+            public void setSeed(long seed) {
+            }
+
+            @Override
+            public PieceType next() {
+                return type;
+            }
+
+            @Override
+            public String getName() {
+                return type.name();
+            }
+        });
+        game.start(0);
+        game.getPlayfield().copyFrom(playfield);
+        return game;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.PieceGenerator;
+import tetris.engine.PieceShape;
+import tetris.engine.PieceType;
+import tetris.engine.Playfield;
+import tetris.engine.replay.ReplayEvent;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+
+/**
+ * Checks the placements of the search against a straightforward breadth-first search and plays their inputs in a game.
+ *
+ * @author Christian Schudt
+ */
+public class PlacementSearchTest {
+
+    private static final int PLAYFIELDS = 300;
+
+    @Test
+    public void testPlacements() {
+        Random random = new Random(3);
+        PlacementSearch search = new PlacementSearch();
+        int placements = 0;
+        int tucks = 0;
+        for (int i = 0; i < PLAYFIELDS; i++) {
+            Playfield playfield = createPlayfield(random);
+            for (PieceType type : PieceType.values()) {
+                Game game = createGame(type, playfield);
+                if (game.intersects(game.getX(), game.getY())) {
+                    continue;
+                }
+                int count = search.search(game);
+                Map<Integer, Integer> expected = searchPlacements(playfield, type, game.getX(), game.getY());
+                Assert.assertEquals(count, expected.size(), "Placements of " + type);
+                for (int placement = 0; placement < count; placement++) {
+                    int state = state(search.getRotation(placement), search.getX(placement), search.getY(placement));
+                    Integer distance = expected.get(state);
+                    Assert.assertNotNull(distance, "Unexpected placement of " + type);
+                    List<ReplayEvent> inputs = search.getInputs(placement);
+                    // The inputs are the shortest way to the placement, followed by a drop.
+                    Assert.assertEquals(inputs.size(), distance + 1);
+                    Assert.assertEquals(inputs.get(inputs.size() - 1), ReplayEvent.DROP);
+                    if (inputs.contains(ReplayEvent.MOVE_DOWN)) {
+                        tucks++;
+                    }
+
+                    Game replay = createGame(type, playfield);
+                    for (ReplayEvent input : inputs) {
+                        Assert.assertTrue(apply(replay, input), "Input " + input + " of " + inputs);
+                    }
+                    Assert.assertEquals(replay.getRotation(), search.getRotation(placement));
+                    Assert.assertEquals(replay.getX(), search.getX(placement));
+                    Assert.assertEquals(replay.getY(), search.getY(placement));
+                    placements++;
+                }
+            }
+        }
+        Assert.assertTrue(placements > 10000, "Placements: " + placements);
+        Assert.assertTrue(tucks > 0, "No placement under an overhang.");
+    }
+
+    @Test
+    public void testBlockedStart() {
+        Playfield playfield = new Playfield();
+        playfield.addGarbage(Playfield.ROWS - 1, 0);
+        Assert.assertEquals(new PlacementSearch().search(playfield, PieceType.T, 0, 3, 0), 0);
+    }
+
+    /**
+     * Creates a playfield with random blocks, overhangs and garbage.
+     */
+    private static Playfield createPlayfield(Random random) {
+        Playfield playfield = new Playfield();
+        if (random.nextBoolean()) {
+            playfield.addGarbage(1 + random.nextInt(6), random.nextInt(Playfield.COLUMNS));
+        }
+        PieceType[] types = PieceType.values();
+        for (int i = random.nextInt(30); i > 0; i--) {
+            PieceType type = types[random.nextInt(types.length)];
+            PieceShape shape = type.getShape(random.nextInt(PieceType.ROTATIONS));
+            int x = random.nextInt(Playfield.COLUMNS - shape.getWidth() + 1) - shape.getLeft();
+            int y = -shape.getTop();
+            if (playfield.intersects(shape, x, y + Playfield.HIDDEN_ROWS + 4)) {
+                break;
+            }
+            playfield.merge(type, shape, x, playfield.drop(shape, x, y));
+            playfield.eliminateRows(0, Playfield.ROWS - 1);
+        }
+        return playfield;
+    }
+
+    /**
+     * Creates a game, whose current piece has just spawned on the given playfield.
+     */
+    private static Game createGame(final PieceType type, Playfield playfield) {
+        Game game = new Game(1, new PieceGenerator() {
+            @Override
+            public void setSeed(long seed) {
+            }
+
+            @Override
+            public PieceType next() {
+                return type;
+            }
+
+            @Override
+            public String getName() {
+                return type.name();
+            }
+        });
+        game.start(0);
+        game.getPlayfield().copyFrom(playfield);
+        return game;
+    }
+
+    private static boolean apply(Game game, ReplayEvent input) {
+        switch (input) {
+            case MOVE_LEFT:
+                return game.move(-1);
+            case MOVE_RIGHT:
+                return game.move(1);
+            case ROTATE_CLOCKWISE:
+                return game.rotate(1);
+            case ROTATE_COUNTER_CLOCKWISE:
+                return game.rotate(-1);
+            case MOVE_DOWN:
+                return game.moveDown();
+            case DROP:
+                game.dropDown();
+                return true;
+            default:
+                throw new IllegalArgumentException(input.name());
+        }
+    }
+
+    /**
+     * Finds all placements with the smallest number of inputs to reach them (without the drop), by trying all inputs from all states.
+     *
+     * @return The distances by the landing states.
+     */
+    private static Map<Integer, Integer> searchPlacements(Playfield playfield, PieceType type, int x, int y) {
+        Map<Integer, Integer> distances = new HashMap<>();
+        Map<Integer, Integer> placements = new HashMap<>();
+        Queue<Integer> queue = new ArrayDeque<>();
+        int start = state(0, x, y);
+        distances.put(start, 0);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            int rotation = state / 10000;
+            int sx = state / 100 % 100 - 10;
+            int sy = state % 100;
+            int distance = distances.get(state);
+
+            int landing = sy;
+            while (!playfield.intersects(type.getShape(rotation), sx, landing + 1)) {
+                landing++;
+            }
+            int placement = state(rotation, sx, landing);
+            if (!placements.containsKey(placement)) {
+                placements.put(placement, distance);
+            }
+
+            int[][] neighbors = {{rotation, sx - 1, sy}, {rotation, sx + 1, sy}, {(rotation + 1) & 3, sx, sy}, {(rotation + 3) & 3, sx, sy}, {rotation, sx, sy + 1}};
+            for (int[] neighbor : neighbors) {
+                int next = state(neighbor[0], neighbor[1], neighbor[2]);
+                if (!distances.containsKey(next) && !playfield.intersects(type.getShape(neighbor[0]), neighbor[1], neighbor[2])) {
+                    distances.put(next, distance + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return placements;
+    }
+
+    private static int state(int rotation, int x, int y) {
+        return rotation * 10000 + (x + 10) * 100 + y;
+    }
+}
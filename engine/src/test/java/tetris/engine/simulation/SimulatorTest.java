@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.simulation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * @author Christian Schudt
+ */
+public class SimulatorTest {
+
+    private static final Supplier<MovePolicy> GREEDY = new Supplier<MovePolicy>() {
+        @Override
+        public MovePolicy get() {
+            return new GreedyPolicy();
+        }
+    };
+
+    @Test
+    public void testPieceLimit() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Simulator simulator = new Simulator(GREEDY, pool);
+            simulator.setPieceLimit(100);
+            SimulationResult result = simulator.run(20, 1);
+            Assert.assertEquals(result.getGames(), 20);
+            for (int i = 0; i < result.getGames(); i++) {
+                // The greedy policy doesn't lose within the first 100 pieces.
+                Assert.assertEquals(result.getPieces(i), 100, "Pieces of game " + i);
+            }
+            Assert.assertEquals(result.getTotalPieces(), 2000);
+            long clears = 0;
+            for (int rows = 0; rows <= 4; rows++) {
+                clears += result.getClears(rows);
+            }
+            // Every locked piece either cleared rows or not.
+            Assert.assertEquals(clears, 2000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReproducible() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Simulator simulator = new Simulator(GREEDY, pool);
+            simulator.setPieceLimit(300);
+            SimulationResult first = simulator.run(12, 7);
+            SimulationResult second = simulator.run(12, 7);
+            for (int i = 0; i < first.getGames(); i++) {
+                Assert.assertEquals(second.getScore(i), first.getScore(i));
+                Assert.assertEquals(second.getPieces(i), first.getPieces(i));
+                Assert.assertEquals(second.getRows(i), first.getRows(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Christian Schudt
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package tetris.engine.versus;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import tetris.engine.Game;
+import tetris.engine.Playfield;
+import tetris.engine.replay.ReplayEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Plays versus matches on a server on localhost.
+ *
+ * @author Christian Schudt
+ */
+public class VersusServerTest {
+
+    /**
+     * Runs the listeners directly on the receiving thread of the client.
+     */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private VersusServer server;
+
+    private Thread serverThread;
+
+    private InetSocketAddress address;
+
+    private final List<Closeable> clients = new ArrayList<>();
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        server = new VersusServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverThread = new Thread(server, "Versus Server");
+        serverThread.start();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    @AfterMethod
+    public void stopServer() throws Exception {
+        for (Closeable client : clients) {
+            client.close();
+        }
+        clients.clear();
+        server.close();
+        serverThread.join(5000);
+        Assert.assertFalse(serverThread.isAlive());
+    }
+
+    @Test
+    public void testMatch() throws Exception {
+        Player a = new Player();
+        Player b = new Player();
+        a.client.join(2);
+        b.client.join(2);
+        String startA = a.take();
+        String startB = b.take();
+        Assert.assertTrue(startA.startsWith("start "));
+        // Both players get the same seed and different indexes.
+        Assert.assertEquals(seedOf(startA), seedOf(startB));
+        Assert.assertNotEquals(startA, startB);
+        int indexA = indexOf(startA);
+        int indexB = indexOf(startB);
+
+        a.client.sendInput(5, ReplayEvent.DROP.ordinal());
+        Assert.assertEquals(b.take(), "input " + indexA + " 5 " + ReplayEvent.DROP.ordinal());
+
+        a.client.attack(2);
+        String garbage = b.take();
+        Assert.assertTrue(garbage.startsWith("garbage " + indexA + " 2 "), garbage);
+        int hole = Integer.parseInt(garbage.substring(garbage.lastIndexOf(' ') + 1));
+        Assert.assertTrue(hole >= 0 && hole < Playfield.COLUMNS);
+
+        // Attacks beyond the maximum are ignored.
+        a.client.attack(VersusProtocol.MAX_ATTACK + 1);
+        a.client.ping();
+        Assert.assertTrue(a.take().startsWith("pong"));
+        b.client.ping();
+        Assert.assertTrue(b.take().startsWith("pong"));
+
+        b.client.lose();
+        Assert.assertEquals(a.take(), "end " + indexA);
+        Assert.assertEquals(b.take(), "end " + indexA);
+
+        // The next match.
+        b.client.join(2);
+        a.client.join(2);
+        indexOf(a.take());
+        indexB = indexOf(b.take());
+        a.client.lose();
+        Assert.assertEquals(b.take(), "end " + indexB);
+        Assert.assertEquals(server.getMatches(), 2);
+    }
+
+    @Test
+    public void testDisconnectDuringMatch() throws Exception {
+        Player a = new Player();
+        Player b = new Player();
+        Player c = new Player();
+        a.client.join(3);
+        b.client.join(3);
+        c.client.join(3);
+        int indexA = indexOf(a.take());
+        indexOf(b.take());
+        int indexC = indexOf(c.take());
+
+        b.client.close();
+        Assert.assertEquals(b.take(), "disconnected");
+        // The match goes on with the remaining players. The attacker is chosen, so that its next opponent is the other remaining player,
+        // no matter if the server has already noticed the disconnect.
+        if ((indexA + 1) % 3 == indexC) {
+            a.client.attack(4);
+            Assert.assertTrue(c.take().startsWith("garbage " + indexA + " 4 "));
+        } else {
+            c.client.attack(4);
+            Assert.assertTrue(a.take().startsWith("garbage " + indexC + " 4 "));
+        }
+        c.client.close();
+        Assert.assertEquals(c.take(), "disconnected");
+        Assert.assertEquals(a.take(), "end " + indexA);
+
+        // The server still accepts new matches.
+        Player d = new Player();
+        a.client.join(2);
+        d.client.join(2);
+        Assert.assertTrue(a.take().startsWith("start "));
+        Assert.assertTrue(d.take().startsWith("start "));
+    }
+
+    @Test
+    public void testSession() throws Exception {
+        // The disconnect, which is reported after the session is closed, is discarded.
+        final ExecutorService gameThread = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadPoolExecutor.DiscardPolicy());
+        try {
+            final Game game = new Game(1);
+            final long[] ticks = {1000};
+            final VersusSession session = new VersusSession(game, new LongSupplier() {
+                @Override
+                public long getAsLong() {
+                    return ticks[0];
+                }
+            }, address, gameThread, new LongConsumer() {
+                @Override
+                public void accept(long seed) {
+                    // Like the board, the clock restarts with the game.
+                    ticks[0] = 0;
+                    game.start(seed);
+                }
+            });
+            game.addGameListener(session);
+            Player opponent = new Player();
+
+            for (int match = 0; match < 2; match++) {
+                onGameThread(gameThread, new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        session.join(2);
+                        return null;
+                    }
+                });
+                opponent.client.join(2);
+                long seed = seedOf(opponent.take());
+                waitFor(gameThread, new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return session.getIndex() >= 0;
+                    }
+                });
+                Assert.assertEquals(game.getSeed(), seed);
+
+                onGameThread(gameThread, new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        ticks[0] = 3;
+                        game.dropDown();
+                        return null;
+                    }
+                });
+                // The frame is counted since the start of this match.
+                Assert.assertEquals(opponent.take(), "input " + session.getIndex() + " 3 " + ReplayEvent.DROP.ordinal());
+
+                opponent.client.attack(2);
+                waitFor(gameThread, new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return game.getPendingGarbage() == 2;
+                    }
+                });
+                opponent.client.lose();
+                waitFor(gameThread, new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return session.getWinner() == session.getIndex();
+                    }
+                });
+                Assert.assertTrue(opponent.take().startsWith("end "));
+                // Simulate the passing time of the first game, so that the next match starts with a clock, which isn't 0.
+                ticks[0] = 500;
+            }
+            session.close();
+        } finally {
+            gameThread.shutdown();
+        }
+    }
+
+    private static long seedOf(String start) {
+        return Long.parseLong(start.split(" ")[1]);
+    }
+
+    private static int indexOf(String start) {
+        Assert.assertTrue(start.startsWith("start "), start);
+        return Integer.parseInt(start.split(" ")[3]);
+    }
+
+    private static <T> T onGameThread(ExecutorService gameThread, Callable<T> callable) throws Exception {
+        return gameThread.submit(callable).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void waitFor(ExecutorService gameThread, Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!onGameThread(gameThread, condition)) {
+            Assert.assertTrue(System.nanoTime() < deadline, "Timeout");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * A client, which records the messages of the server.
+     */
+    private final class Player implements VersusListener {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        private final VersusClient client;
+
+        private Player() throws IOException {
+            client = new VersusClient(address, this, DIRECT);
+            clients.add(client);
+        }
+
+        private String take() throws InterruptedException {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(message, "No message received.");
+            return message;
+        }
+
+        @Override
+        public void onStart(long seed, int players, int index) {
+            messages.add("start " + seed + " " + players + " " + index);
+        }
+
+        @Override
+        public void onOpponentInput(int player, int frame, int event) {
+            messages.add("input " + player + " " + frame + " " + event);
+        }
+
+        @Override
+        public void onGarbage(int from, int rows, int hole) {
+            messages.add("garbage " + from + " " + rows + " " + hole);
+        }
+
+        @Override
+        public void onEnd(int winner) {
+            messages.add("end " + winner);
+        }
+
+        @Override
+        public void onPong(long nanos) {
+            messages.add("pong " + nanos);
+        }
+
+        @Override
+        public void onDisconnected() {
+            messages.add("disconnected");
+        }
+    }
+}